@@ -0,0 +1,93 @@
+package net.danielgolan.elderion.library.benchmark;
+
+import net.danielgolan.elderion.library.fluids.FluidHandler;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Material;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.registry.BuiltinRegistries;
+import net.minecraft.world.WorldView;
+import net.minecraft.world.dimension.DimensionType;
+import net.minecraft.world.dimension.DimensionTypes;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link FluidHandler.Delegator} to {@link FluidHandler} dispatch of a lava-like fluid,
+ * as called on every fluid tick.
+ * <p>
+ * The fluid is given block settings of its own, since copying the settings of water goes through Fabric's accessor
+ * mixin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FluidBenchmark {
+    @Param({"overworld", "the_nether"})
+    public String dimension;
+
+    private FluidHandler.Delegator fluid;
+    private FluidState still, flowing;
+    private WorldView world;
+
+    @Setup
+    public void setup() {
+        Headless.bootstrap();
+
+        FluidHandler handler = FluidHandler.builder()
+                .flowSpeed(FluidHandler.LAVA_FLOW_SPEED)
+                .levelDecreasePerBlock(FluidHandler.LAVA_LEVEL_DECREASE)
+                .blockSettings(AbstractBlock.Settings.of(Material.LAVA).noCollision().strength(100).dropsNothing())
+                .build(Headless.identifier("benchmark_lava"));
+
+        fluid = (FluidHandler.Delegator) handler.getStill();
+        still = fluid.getStill(false);
+        flowing = fluid.getFlowing(4, false);
+        world = world(BuiltinRegistries.DIMENSION_TYPE.getOrThrow(
+                dimension.equals("the_nether") ? DimensionTypes.THE_NETHER : DimensionTypes.OVERWORLD));
+    }
+
+    /**
+     * @return a world which only knows its dimension, which is all the lava presets read
+     */
+    private static WorldView world(DimensionType dimension) {
+        return (WorldView) Proxy.newProxyInstance(WorldView.class.getClassLoader(), new Class<?>[]{WorldView.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getDimension")) return dimension;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Benchmark
+    public int flowSpeed() {
+        return fluid.getFlowSpeed(world);
+    }
+
+    /**
+     * The lava preset evaluated directly, to compare the dispatch with.
+     */
+    @Benchmark
+    public int flowSpeedPreset() {
+        return FluidHandler.LAVA_FLOW_SPEED.applyAsInt(world);
+    }
+
+    @Benchmark
+    public int tickRate() {
+        return fluid.getTickRate(world);
+    }
+
+    @Benchmark
+    public BlockState stillBlockState() {
+        return fluid.toBlockState(still);
+    }
+
+    @Benchmark
+    public BlockState flowingBlockState() {
+        return fluid.toBlockState(flowing);
+    }
+}
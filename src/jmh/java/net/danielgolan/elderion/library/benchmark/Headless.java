@@ -0,0 +1,33 @@
+package net.danielgolan.elderion.library.benchmark;
+
+import net.danielgolan.elderion.library.Author;
+import net.danielgolan.elderion.library.ElderionIdentifier;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+
+/**
+ * Bootstraps the game without a client, server or mod loader, so the benchmarks can build blocks.
+ * Registries are left unfrozen, and no mixin is applied: benchmarks must not reach code which casts to Fabric's
+ * accessors or duck interfaces, like copying block settings or creating fluid variants.
+ */
+public final class Headless {
+    public static final Author AUTHOR = new BenchmarkAuthor("benchmark", "elderly_lib");
+
+    private static boolean bootstrapped = false;
+
+    private Headless() { }
+
+    public static synchronized void bootstrap() {
+        if (bootstrapped) return;
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        bootstrapped = true;
+    }
+
+    public static ElderionIdentifier identifier(String path) {
+        return new ElderionIdentifier(AUTHOR, path);
+    }
+
+    private record BenchmarkAuthor(String name, String modID) implements Author { }
+}
@@ -0,0 +1,35 @@
+package net.danielgolan.elderion.library.benchmark;
+
+import net.danielgolan.elderion.library.ElderionIdentifier;
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ElderionIdentifier#toIdentifier(String)}, with and without a suffix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentifierBenchmark {
+    private ElderionIdentifier identifier;
+
+    @Setup
+    public void setup() {
+        identifier = Headless.identifier("stone_bricks");
+    }
+
+    @Benchmark
+    public Identifier base() {
+        return identifier.get();
+    }
+
+    @Benchmark
+    public Identifier suffixed() {
+        return identifier.toIdentifier("stairs");
+    }
+}
@@ -0,0 +1,79 @@
+package net.danielgolan.elderion.library.benchmark;
+
+import net.danielgolan.elderion.library.ElderionIdentifier;
+import net.danielgolan.elderion.library.blocks.BlockGenerator;
+import net.danielgolan.elderion.library.blocks.BlockVariation;
+import net.danielgolan.elderion.library.blocks.VariedBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.MapColor;
+import net.minecraft.block.Material;
+import net.minecraft.sound.BlockSoundGroup;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link VariedBlock.Builder#build(ElderionIdentifier)} with all variations enabled,
+ * and {@link VariedBlock#block(BlockVariation)} lookups.
+ * <p>
+ * Every built block stays referenced by the unfrozen block registry, so the build benchmark is kept short.
+ * <p>
+ * The base block is built without {@linkplain BlockGenerator#generate(VariedBlock.Builder) copying} the builder's
+ * settings, which goes through Fabric's accessor mixin; every variation is generated like in the game.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariedBlockBenchmark {
+    private static final BlockVariation[] VARIATIONS = BlockVariation.values();
+    private static final BlockGenerator HEADLESS = new BlockGenerator() {
+        @Override
+        public Block generateVariation(VariedBlock.Builder builder, Block original, BlockVariation variation) {
+            return DEFAULT.generateVariation(builder, original, variation);
+        }
+
+        @Override
+        public Block generate(VariedBlock.Builder builder) {
+            return new Block(builder);
+        }
+    };
+
+    private ElderionIdentifier identifier;
+    private VariedBlock.Builder builder;
+    private VariedBlock block;
+
+    @Setup
+    public void setup() {
+        Headless.bootstrap();
+
+        identifier = Headless.identifier("stone_bricks");
+        //the same as the stone bricks, without copying them, which needs Fabric's mixins
+        builder = VariedBlock.builder(Material.STONE, MapColor.STONE_GRAY).requiresTool().strength(1.5f, 6)
+                .sounds(BlockSoundGroup.STONE).enable(VARIATIONS).recipesEnabled(true).generator(HEADLESS);
+        block = builder.build(identifier);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2, time = 1)
+    @Measurement(iterations = 3, time = 1)
+    public VariedBlock build() {
+        return builder.build(identifier);
+    }
+
+    @Benchmark
+    public Block block() {
+        return block.block(BlockVariation.STAIRS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(6)
+    public void blocks(Blackhole blackhole) {
+        for (BlockVariation variation : VARIATIONS)
+            blackhole.consume(block.block(variation));
+    }
+}
@@ -3,10 +3,12 @@ package net.danielgolan.elderion.library;
 import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Locale;
+
 public record ElderionIdentifier(Author author, String path) {
     public ElderionIdentifier(Author author, @NotNull String path) {
         this.author = author;
-        this.path = path.toLowerCase();
+        this.path = path.toLowerCase(Locale.ROOT);
     }
 
     @Deprecated
@@ -18,16 +20,12 @@ public record ElderionIdentifier(Author author, String path) {
         return toIdentifier("");
     }
 
+    /**
+     * @param pathAddition an addition to the path, ignored when blank
+     * @return a shared {@link Identifier} from the {@link IdentifierPool}
+     */
     public @NotNull Identifier toIdentifier(String pathAddition) {
-        if (pathAddition == null || pathAddition.isEmpty() || pathAddition.isBlank())
-            return isEmpty(author) ? new Identifier(author.modID(), path) :
-                    new Identifier(author.modID(), author.name() + '/' + path);
-        else return isEmpty(author) ? new Identifier(author.modID(), path + '_' + pathAddition) :
-                new Identifier(author.modID(), author.name() + '/' + path + '_' + pathAddition);
-    }
-
-    private boolean isEmpty(Author a) {
-        return a == null || a.name() == null || a.name().equals("");
+        return IdentifierPool.get(author, path, pathAddition);
     }
 
     @Override
@@ -1,22 +1,67 @@
 package net.danielgolan.elderion.library;
 
+import com.google.common.collect.ImmutableMap;
 import net.danielgolan.elderion.library.blocks.VariedBlock;
+import net.danielgolan.elderion.library.fluids.PendingFlows;
+import net.danielgolan.elderion.library.fluids.SettledFluids;
+import net.danielgolan.elderion.library.fluids.TickRatePolicy;
+import net.danielgolan.elderion.library.profiling.StartupProfiler;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.recipe.Recipe;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Elderly implements ModInitializer {
-    private static final List<List<Recipe<?>>> recipes = new ArrayList<>();
+    private static final Object recipesLock = new Object();
+    /**
+     * Recipes added since the last data reload, released once handed over to {@link #injectedRecipes}
+     */
+    private static List<List<Recipe<?>>> recipes = new ArrayList<>();
+    /**
+     * Recipes injected into the vanilla {@link net.minecraft.recipe.RecipeManager} on every data reload
+     */
+    private static Map<Identifier, Recipe<?>> injectedRecipes = ImmutableMap.of();
 
     @Override
     public void onInitialize() {
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> StartupProfiler.report());
+        ServerTickEvents.END_SERVER_TICK.register(TickRatePolicy::update);
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> PendingFlows.of(world).replay(world, chunk));
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> SettledFluids.of(world).remove(chunk.getPos()));
     }
 
     public interface RecipeManager {
         static void addRecipes(List<Recipe<?>> recipes){
-            Elderly.recipes.add(recipes);
+            synchronized (recipesLock) {
+                Elderly.recipes.add(recipes);
+            }
+        }
+
+        /**
+         * Called by the vanilla {@link net.minecraft.recipe.RecipeManager} on every data reload.
+         * Hands the recipes added since the last call over to the injected recipes, and releases them.
+         * @return all the recipes to inject, by their identifier
+         */
+        static @NotNull Map<Identifier, Recipe<?>> injectedRecipes() {
+            synchronized (recipesLock) {
+                if (Elderly.recipes.isEmpty()) return injectedRecipes;
+
+                Map<Identifier, Recipe<?>> recipes = new LinkedHashMap<>(injectedRecipes);
+                for (List<Recipe<?>> list : Elderly.recipes)
+                    for (Recipe<?> recipe : list)
+                        recipes.putIfAbsent(recipe.getId(), recipe);
+
+                Elderly.recipes = new ArrayList<>();
+                return injectedRecipes = ImmutableMap.copyOf(recipes);
+            }
         }
     }
 }
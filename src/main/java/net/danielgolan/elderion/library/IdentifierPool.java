@@ -0,0 +1,91 @@
+package net.danielgolan.elderion.library;
+
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A global pool of the {@link Identifier}s generated by {@link ElderionIdentifier}.
+ * <p>
+ * Every (author, path, suffix) key is mapped to one shared {@link Identifier}, and every namespace is kept as one
+ * shared {@link String}. The identifiers are nested by author, then by path, then by suffix, so generating the same
+ * identifier again doesn't allocate anything, not even a key.
+ */
+public final class IdentifierPool {
+    private static final Map<Author, Map<String, Map<String, Identifier>>> identifiers = new ConcurrentHashMap<>();
+    private static final Map<String, String> namespaces = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+    private IdentifierPool() { }
+
+    /**
+     * @param author the author of the identifier, whose mod ID is its namespace
+     * @param path the already lower-cased path of the identifier
+     * @param suffix an addition to the path, ignored when blank
+     * @return the shared {@link Identifier} of this key
+     * @throws NullPointerException if the author is {@code null}, since it has no namespace
+     */
+    public static @NotNull Identifier get(@NotNull Author author, @NotNull String path, String suffix) {
+        Objects.requireNonNull(author, "An identifier needs an author");
+        if (suffix == null || suffix.isBlank()) suffix = "";
+
+        //plain gets first, so a hit doesn't allocate a lambda either
+        Map<String, Map<String, Identifier>> paths = identifiers.get(author);
+        if (paths == null) paths = identifiers.computeIfAbsent(author, a -> new ConcurrentHashMap<>());
+
+        Map<String, Identifier> suffixes = paths.get(path);
+        if (suffixes == null) suffixes = paths.computeIfAbsent(path, p -> new ConcurrentHashMap<>());
+
+        Identifier identifier = suffixes.get(suffix);
+        if (identifier != null) {
+            hits.increment();
+            return identifier;
+        }
+
+        misses.increment();
+        return suffixes.computeIfAbsent(suffix, s -> create(author, path, s));
+    }
+
+    private static @NotNull Identifier create(@NotNull Author author, @NotNull String path, @NotNull String suffix) {
+        String namespace = namespaces.computeIfAbsent(author.modID(), s -> s);
+        StringBuilder builder = new StringBuilder();
+
+        if (!isEmpty(author)) builder.append(author.name()).append('/');
+        builder.append(path);
+        if (!suffix.isEmpty()) builder.append('_').append(suffix);
+
+        return new Identifier(namespace, builder.toString());
+    }
+
+    private static boolean isEmpty(Author a) {
+        return a == null || a.name() == null || a.name().equals("");
+    }
+
+    /**
+     * @return how many times an identifier was served from the pool
+     */
+    public static long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many times an identifier wasn't found in the pool
+     */
+    public static long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return how many identifiers are currently pooled
+     */
+    public static int size() {
+        int size = 0;
+        for (Map<String, Map<String, Identifier>> paths : identifiers.values())
+            for (Map<String, Identifier> suffixes : paths.values()) size += suffixes.size();
+        return size;
+    }
+}
@@ -0,0 +1,163 @@
+package net.danielgolan.elderion.library;
+
+import net.danielgolan.elderion.library.profiling.ElderlyEvent;
+import net.danielgolan.elderion.library.profiling.StartupProfiler;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Registers many handlers in two phases.
+ * <p>
+ * First, every queued handler is {@linkplain Registrable#prepare() prepared} on a worker pool, which covers all the
+ * work that doesn't write to a registry: identifier generation, recipe construction and validation.
+ * Then, duplicate identifiers are detected, and everything is committed to the registries in one serial pass,
+ * in the order the handlers were queued.
+ * <p>
+ * Call {@link #commit()} from {@link net.fabricmc.api.ModInitializer#onInitialize()}.
+ */
+public final class RegistrationBatch {
+    private final List<Registrable> handlers = new ArrayList<>();
+    private final Executor executor;
+    private boolean committed = false;
+
+    public RegistrationBatch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor the worker pool the preparation phase runs on
+     */
+    public RegistrationBatch(@NotNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param handler a handler to register when this batch is committed
+     * @return {@code this}
+     */
+    @Contract("_ -> this")
+    public RegistrationBatch add(@NotNull Registrable handler) {
+        if (committed) throw new IllegalStateException("This registration batch was already committed");
+
+        handlers.add(handler);
+        return this;
+    }
+
+    /**
+     * @param handlers handlers to register when this batch is committed
+     * @return {@code this}
+     */
+    @Contract("_ -> this")
+    public RegistrationBatch add(Registrable @NotNull ... handlers) {
+        for (Registrable handler : handlers) add(handler);
+        return this;
+    }
+
+    /**
+     * @return the amount of handlers queued in this batch
+     */
+    public int size() {
+        return handlers.size();
+    }
+
+    /**
+     * Prepares all the queued handlers in parallel, then registers them serially.
+     * @throws IllegalStateException if this batch was already committed, or two entries share a registry and an identifier
+     */
+    public void commit() {
+        if (committed) throw new IllegalStateException("This registration batch was already committed");
+        committed = true;
+
+        //timed as a whole, since its handlers are prepared in parallel
+        try (StartupProfiler.Batch timed = StartupProfiler.batch()) {
+            for (Registrable handler : handlers) handler.materialize();
+
+            List<CompletableFuture<List<Entry<?>>>> futures = new ArrayList<>(handlers.size());
+            for (Registrable handler : handlers)
+                futures.add(CompletableFuture.supplyAsync(handler::prepare, executor));
+
+            List<List<Entry<?>>> entries = new ArrayList<>(handlers.size());
+            try {
+                for (CompletableFuture<List<Entry<?>>> future : futures)
+                    entries.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+
+            validate(entries);
+
+            for (int i = 0; i < handlers.size(); i++) {
+                try (StartupProfiler.Section ignored = StartupProfiler.start(new ElderlyEvent.Register(), handlers.get(i).identifier(), null)) {
+                    for (Entry<?> entry : entries.get(i)) entry.register();
+                    StartupProfiler.created(entries.get(i).size());
+                }
+            }
+            for (Registrable handler : handlers) handler.onRegistered();
+        }
+    }
+
+    private static void validate(@NotNull List<List<Entry<?>>> entries) {
+        Map<Registry<?>, Set<Identifier>> identifiers = new IdentityHashMap<>();
+
+        for (List<Entry<?>> list : entries) {
+            for (Entry<?> entry : list) {
+                if (!identifiers.computeIfAbsent(entry.registry(), registry -> new HashSet<>()).add(entry.identifier())
+                        || entry.registry().containsId(entry.identifier()))
+                    throw new IllegalStateException("Duplicate registration of " + entry.identifier() + " in " + entry.registry());
+            }
+        }
+    }
+
+    /**
+     * An object which is going to be registered.
+     * @param registry the registry the value is registered to
+     * @param identifier the identifier the value is registered with
+     * @param value the value to register
+     */
+    public record Entry<T>(@NotNull Registry<T> registry, @NotNull Identifier identifier, @NotNull T value) {
+        public Entry {
+            Objects.requireNonNull(registry, "registry");
+            Objects.requireNonNull(identifier, "identifier");
+            Objects.requireNonNull(value, () -> "value of " + identifier);
+        }
+
+        public T register() {
+            return Registry.register(registry, identifier, value);
+        }
+    }
+
+    /**
+     * A handler which can be queued in a {@link RegistrationBatch}.
+     */
+    public interface Registrable {
+        /**
+         * @return the identifier of this handler
+         */
+        ElderionIdentifier identifier();
+
+        /**
+         * Called on the committing thread before {@link #prepare()}, for any construction which can't run on a worker thread.
+         */
+        default void materialize() { }
+
+        /**
+         * Prepares this handler for registration. This may run off the main thread, so it must not write to any registry.
+         * @return everything this handler registers, in order
+         */
+        @NotNull List<Entry<?>> prepare();
+
+        /**
+         * Called on the main thread once all the entries of this handler were registered.
+         */
+        default void onRegistered() { }
+    }
+}
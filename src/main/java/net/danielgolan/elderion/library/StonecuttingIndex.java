@@ -0,0 +1,101 @@
+package net.danielgolan.elderion.library;
+
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.Recipe;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.recipe.StonecuttingRecipe;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Serves stonecutter lookups of the recipes generated by this library from a map of input {@link Item}s to their
+ * recipes, sorted the way vanilla sorts them. Only the stonecutting recipes this library doesn't own are matched
+ * one by one, like vanilla does.
+ */
+public final class StonecuttingIndex {
+    private static final Comparator<Recipe<?>> ORDER = Comparator.comparing(recipe -> recipe.getOutput().getTranslationKey());
+
+    //reused between reloads as long as no new recipes were generated
+    private static Map<Identifier, Recipe<?>> lastInjected = Map.of();
+    private static Map<Item, List<StonecuttingRecipe>> lastIndex = Map.of();
+
+    private final Map<Item, List<StonecuttingRecipe>> index;
+    private final List<StonecuttingRecipe> foreign;
+
+    private StonecuttingIndex(Map<Item, List<StonecuttingRecipe>> index, List<StonecuttingRecipe> foreign) {
+        this.index = index;
+        this.foreign = foreign;
+    }
+
+    /**
+     * @param recipes all the stonecutting recipes of the recipe manager
+     * @param injected the recipes this library injected into the recipe manager
+     * @return an index of these recipes
+     */
+    public static synchronized @NotNull StonecuttingIndex of(@NotNull Map<Identifier, Recipe<?>> recipes, @NotNull Map<Identifier, Recipe<?>> injected) {
+        List<StonecuttingRecipe> foreign = new ArrayList<>();
+        boolean overridden = false;
+
+        for (Map.Entry<Identifier, Recipe<?>> entry : recipes.entrySet()) {
+            if (!(entry.getValue() instanceof StonecuttingRecipe recipe)) continue;
+
+            Recipe<?> owned = injected.get(entry.getKey());
+            if (owned == null) foreign.add(recipe);
+            else if (owned != recipe) {
+                foreign.add(recipe);
+                overridden = true;
+            }
+        }
+
+        if (overridden) return new StonecuttingIndex(index(injected, recipes), List.copyOf(foreign));
+
+        if (injected != lastInjected) {
+            lastIndex = index(injected, recipes);
+            lastInjected = injected;
+        }
+
+        return new StonecuttingIndex(lastIndex, List.copyOf(foreign));
+    }
+
+    private static @NotNull Map<Item, List<StonecuttingRecipe>> index(@NotNull Map<Identifier, Recipe<?>> injected, Map<Identifier, Recipe<?>> recipes) {
+        Map<Item, List<StonecuttingRecipe>> index = new IdentityHashMap<>();
+
+        for (Recipe<?> recipe : injected.values()) {
+            if (!(recipe instanceof StonecuttingRecipe stonecuttingRecipe) || recipes.get(recipe.getId()) != recipe) continue;
+
+            Set<Item> inputs = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (ItemStack stack : stonecuttingRecipe.getIngredients().get(0).getMatchingStacks())
+                inputs.add(stack.getItem());
+
+            for (Item input : inputs)
+                index.computeIfAbsent(input, item -> new ArrayList<>()).add(stonecuttingRecipe);
+        }
+
+        index.replaceAll((item, list) -> {
+            list.sort(ORDER);
+            return List.copyOf(list);
+        });
+
+        return index;
+    }
+
+    /**
+     * Same as {@link net.minecraft.recipe.RecipeManager#getAllMatches(RecipeType, Inventory, World)}
+     * for {@link RecipeType#STONECUTTING}.
+     */
+    public @NotNull List<StonecuttingRecipe> getAllMatches(@NotNull Inventory inventory, World world) {
+        List<StonecuttingRecipe> owned = index.getOrDefault(inventory.getStack(0).getItem(), List.of());
+        List<StonecuttingRecipe> matches = new ArrayList<>(owned);
+
+        for (StonecuttingRecipe recipe : foreign)
+            if (recipe.matches(inventory, world)) matches.add(recipe);
+
+        if (matches.size() > owned.size()) matches.sort(ORDER);
+        return matches;
+    }
+}
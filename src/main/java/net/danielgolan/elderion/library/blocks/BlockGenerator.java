@@ -1,32 +1,27 @@
 package net.danielgolan.elderion.library.blocks;
 
+import net.fabricmc.fabric.api.object.builder.v1.block.FabricBlockSettings;
 import net.minecraft.block.*;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
 import net.minecraft.world.BlockView;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
 
 public interface BlockGenerator {
-    BlockGenerator DEFAULT = (settings, original, variation) -> switch (variation) {
-        case STAIRS -> generateStairs(original, settings);
-        case BLOCK -> original;
-        case WALL -> new WallBlock(settings);
-        case SLAB -> new SlabBlock(settings);
-        case FENCE -> new FenceBlock(settings);
-        case FENCE_GATE -> new FenceGateBlock(settings);
-    };
+    /**
+     * Generates every variation with its {@linkplain BlockVariation#GENERATOR own generator}.
+     */
+    BlockGenerator DEFAULT = (settings, original, variation) -> variation.GENERATOR.generate(settings, original);
 
     Block generateVariation(VariedBlock.Builder builder, Block original, BlockVariation variation);
 
     default Block generate(VariedBlock.Builder builder) {
-        return new Block(builder) {
-            @Override
-            public VoxelShape getOutlineShape(BlockState state, BlockView world, BlockPos pos, ShapeContext context) {
-                return builder.boundingBox() == null ? super.getOutlineShape(state, world, pos, context) :
-                        builder.boundingBox();
-            }
-        };
+        return new ShapedBlock(FabricBlockSettings.copyOf(builder), builder.boundingBox());
     }
 
     @Contract("_, _ -> new")
@@ -44,4 +39,58 @@ public interface BlockGenerator {
             super(state, settings);
         }
     }
+
+    /**
+     * A block whose outline, collision and culling shapes are computed once per state, from an
+     * {@linkplain BlockShapes#intern(VoxelShape) interned} bounding box.
+     */
+    final class ShapedBlock extends Block {
+        private final List<BlockState> states;
+        //indexed like states
+        private final VoxelShape[] outlineShapes, collisionShapes, cullingShapes;
+
+        /**
+         * @param box the outline of every state, or {@code null} for a full cube
+         */
+        private ShapedBlock(Settings settings, @Nullable VoxelShape box) {
+            super(settings);
+
+            VoxelShape outline = box == null ? VoxelShapes.fullCube() : BlockShapes.intern(box);
+            states = getStateManager().getStates();
+            outlineShapes = new VoxelShape[states.size()];
+            collisionShapes = new VoxelShape[states.size()];
+            cullingShapes = new VoxelShape[states.size()];
+
+            //the same as the vanilla defaults, for this outline
+            for (int i = 0; i < states.size(); i++) {
+                outlineShapes[i] = outline;
+                collisionShapes[i] = collidable ? outline : VoxelShapes.empty();
+                cullingShapes[i] = outline;
+            }
+        }
+
+        private int indexOf(BlockState state) {
+            //generated blocks have no properties, so they only have one state
+            if (states.size() == 1) return 0;
+
+            for (int i = 0; i < states.size(); i++)
+                if (states.get(i) == state) return i;
+            return 0;
+        }
+
+        @Override
+        public VoxelShape getOutlineShape(BlockState state, BlockView world, BlockPos pos, ShapeContext context) {
+            return outlineShapes[indexOf(state)];
+        }
+
+        @Override
+        public VoxelShape getCollisionShape(BlockState state, BlockView world, BlockPos pos, ShapeContext context) {
+            return collisionShapes[indexOf(state)];
+        }
+
+        @Override
+        public VoxelShape getCullingShape(BlockState state, BlockView world, BlockPos pos) {
+            return cullingShapes[indexOf(state)];
+        }
+    }
 }
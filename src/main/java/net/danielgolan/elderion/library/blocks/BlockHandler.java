@@ -2,6 +2,9 @@ package net.danielgolan.elderion.library.blocks;
 
 import net.danielgolan.elderion.library.Author;
 import net.danielgolan.elderion.library.ElderionIdentifier;
+import net.danielgolan.elderion.library.RegistrationBatch;
+import net.danielgolan.elderion.library.profiling.ElderlyEvent;
+import net.danielgolan.elderion.library.profiling.StartupProfiler;
 import net.fabricmc.fabric.api.item.v1.CustomDamageHandler;
 import net.fabricmc.fabric.api.item.v1.EquipmentSlotProvider;
 import net.fabricmc.fabric.api.item.v1.FabricItemSettings;
@@ -18,6 +21,7 @@ import net.minecraft.util.shape.VoxelShape;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.function.ToIntFunction;
 
 /**
@@ -26,22 +30,42 @@ import java.util.function.ToIntFunction;
  * @param <E> a reference to implementations {@link Builder} class
  */
 public abstract sealed class BlockHandler<T extends BlockHandler<T, B, E>, B extends Block, E extends BlockHandler.Builder<T, B, E>>
-        permits OreBlockHandler, VariedBlock {
+        implements RegistrationBatch.Registrable permits OreBlockHandler, VariedBlock {
     public abstract B block();
     public abstract BlockItem item();
 
+    /**
+     * Registers all the contents of this class. To register many handlers at once, use a {@link RegistrationBatch}.
+     * @return {@code this}, to allow easy builder compatibility
+     */
     public T register() {
-        Registry.register(Registry.BLOCK, identifier.get(), block());
-        Registry.register(Registry.ITEM, identifier.get(), item());
+        try (StartupProfiler.Section ignored = StartupProfiler.start(new ElderlyEvent.Register(), identifier, null)) {
+            List<RegistrationBatch.Entry<?>> entries = prepare();
+            entries.forEach(RegistrationBatch.Entry::register);
+            StartupProfiler.created(entries.size());
+        }
+
+        onRegistered();
         return getInstance();
     }
 
+    @Override
+    public @NotNull List<RegistrationBatch.Entry<?>> prepare() {
+        return List.of(new RegistrationBatch.Entry<>(Registry.BLOCK, identifier.get(), block()),
+                new RegistrationBatch.Entry<>(Registry.ITEM, identifier.get(), item()));
+    }
+
     public final ElderionIdentifier identifier;
 
     protected BlockHandler(E builder, ElderionIdentifier identifier) {
         this.identifier = identifier;
     }
 
+    @Override
+    public ElderionIdentifier identifier() {
+        return identifier;
+    }
+
     /**
      * @see net.minecraft.block.AbstractBlock.Settings
      * @see net.fabricmc.fabric.api.object.builder.v1.block.FabricBlockSettings
@@ -270,6 +294,10 @@ public abstract sealed class BlockHandler<T extends BlockHandler<T, B, E>, B ext
     }
 
     protected final @NotNull FabricItemSettings ItemSettingsOf(@NotNull E builder) {
+        return itemSettingsOf(builder);
+    }
+
+    static @NotNull FabricItemSettings itemSettingsOf(@NotNull Builder<?, ?, ?> builder) {
         FabricItemSettings settings = new FabricItemSettings().rarity(builder.rarity()).group(builder.type());
 
         if (builder.equipmentSlot() != null) settings.equipmentSlot(builder.equipmentSlot());
@@ -0,0 +1,44 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.minecraft.util.math.Box;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns {@link VoxelShape}s, so blocks with the same shape share a single instance, across all handlers.
+ * <p>
+ * Shapes are the same if they're made of the same boxes. Interned shapes are never released.
+ */
+public final class BlockShapes {
+    private static final Map<List<Box>, VoxelShape> shapes = new ConcurrentHashMap<>();
+
+    static {
+        intern(VoxelShapes.empty());
+        intern(VoxelShapes.fullCube());
+    }
+
+    private BlockShapes() { }
+
+    /**
+     * @return the interned shape made of the same boxes as this shape
+     */
+    @Contract("null -> null; !null -> !null")
+    public static VoxelShape intern(VoxelShape shape) {
+        if (shape == null) return null;
+
+        return shapes.computeIfAbsent(shape.getBoundingBoxes(), boxes -> shape.simplify());
+    }
+
+    /**
+     * @return how many different shapes were interned
+     */
+    public static int size() {
+        return shapes.size();
+    }
+}
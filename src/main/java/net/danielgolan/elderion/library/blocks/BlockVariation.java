@@ -1,29 +1,161 @@
 package net.danielgolan.elderion.library.blocks;
 
-public enum BlockVariation {
-    BLOCK(),
-    FENCE("fence"),
-    FENCE_GATE("fence_gate"),
-    SLAB("slab", 2),
-    STAIRS("stairs"),
-    WALL("wall");
+import net.minecraft.block.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+
+/**
+ * A variation of a {@link VariedBlock}, like its stairs or its slab.
+ * <p>
+ * Variations are registered once, with {@link #register(String, String, int, Generator)}, and get dense IDs from 0 in
+ * registration order, so {@link VariedBlock}s keep their variations in arrays indexed by ID. Register variations before
+ * building the {@link VariedBlock}s using them.
+ * <p>
+ * This used to be an enum. {@link #name()}, {@link #ordinal()} and {@link #valueOf(String)} are kept, deprecated, for
+ * code written against it; switches and {@link java.util.EnumMap}s over variations need to move to comparisons and
+ * arrays indexed by {@link #ID}.
+ */
+public final class BlockVariation {
+    private static final Object lock = new Object();
+    private static volatile BlockVariation[] values = new BlockVariation[0];
+
+    public static final BlockVariation BLOCK = register("BLOCK", "", 0, (builder, original) -> original);
+    public static final BlockVariation FENCE = register("FENCE", "fence", 1, (builder, original) ->
+            builder.lite() ? new LiteFenceBlock(builder) : new GeneratedFenceBlock(builder));
+    public static final BlockVariation FENCE_GATE = register("FENCE_GATE", "fence_gate", 1, (builder, original) ->
+            builder.lite() ? new LiteFenceGateBlock(builder) : new FenceGateBlock(builder));
+    public static final BlockVariation SLAB = register("SLAB", "slab", 2, (builder, original) -> new SlabBlock(builder));
+    public static final BlockVariation STAIRS = register("STAIRS", "stairs", 1, (builder, original) ->
+            BlockGenerator.generateStairs(original, builder));
+    public static final BlockVariation WALL = register("WALL", "wall", 1, (builder, original) ->
+            builder.lite() ? new LiteWallBlock(builder) : new GeneratedWallBlock(builder));
+
+    /**
+     * The index of this variation in the arrays of every {@link VariedBlock}
+     */
+    public final int ID;
+    public final String NAME;
     public final String SUFFIX;
     /**
      * Amount of items gained when produced in the stonecutter
      */
     public final int RECIPE_RESULT;
+    /**
+     * How {@link BlockGenerator#DEFAULT} generates this variation
+     */
+    public final Generator GENERATOR;
 
-    BlockVariation(String suffix, int stone_cutter_result) {
+    private BlockVariation(int id, String name, String suffix, int stoneCutterResult, Generator generator) {
+        ID = id;
+        NAME = name;
         SUFFIX = suffix;
-        RECIPE_RESULT = stone_cutter_result;
+        RECIPE_RESULT = stoneCutterResult;
+        GENERATOR = generator;
+    }
+
+    /**
+     * Registers a new variation.
+     * @param name the name of the variation, unique
+     * @param suffix appended to the identifier of the block for this variation
+     * @param stoneCutterResult amount of items gained when produced in the stonecutter, or 0 for no recipe
+     * @param generator how {@link BlockGenerator#DEFAULT} generates this variation
+     * @return the new variation
+     */
+    public static @NotNull BlockVariation register(@NotNull String name, @NotNull String suffix, int stoneCutterResult, @NotNull Generator generator) {
+        synchronized (lock) {
+            if (byName(name) != null) throw new IllegalArgumentException("Block variation " + name + " is already registered");
+
+            BlockVariation variation = new BlockVariation(values.length, name, suffix, stoneCutterResult, generator);
+            BlockVariation[] values = Arrays.copyOf(BlockVariation.values, variation.ID + 1);
+            values[variation.ID] = variation;
+            BlockVariation.values = values;
+            return variation;
+        }
+    }
+
+    /**
+     * @return a copy of all the registered variations, by ID
+     */
+    public static BlockVariation @NotNull [] values() {
+        return values.clone();
+    }
+
+    /**
+     * @return all the registered variations, by ID, without copying them. Never modify the array.
+     */
+    static BlockVariation @NotNull [] registered() {
+        return values;
+    }
+
+    /**
+     * @return how many variations are registered
+     */
+    public static int count() {
+        return values.length;
+    }
+
+    /**
+     * @return the variation with this ID
+     * @throws ArrayIndexOutOfBoundsException if there's no such variation
+     */
+    public static BlockVariation byId(int id) {
+        return values[id];
+    }
+
+    /**
+     * @return the variation with this name, or {@code null} if there's none
+     */
+    public static @Nullable BlockVariation byName(@NotNull String name) {
+        for (BlockVariation variation : values)
+            if (variation.NAME.equals(name)) return variation;
+        return null;
     }
 
-    BlockVariation(String suffix) {
-        this(suffix, 1);
+    /**
+     * @return the variation with this name
+     * @throws IllegalArgumentException if there's no such variation
+     * @deprecated from when this was an enum, use {@link #byName(String)}
+     */
+    @Deprecated
+    public static @NotNull BlockVariation valueOf(@NotNull String name) {
+        BlockVariation variation = byName(name);
+        if (variation == null) throw new IllegalArgumentException("No block variation " + name);
+        return variation;
     }
 
-    BlockVariation() {
-        this("", 0);
+    /**
+     * @deprecated from when this was an enum, use {@link #NAME}
+     */
+    @Deprecated
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * @deprecated from when this was an enum, use {@link #ID}, which is the same for the built-in variations
+     */
+    @Deprecated
+    public int ordinal() {
+        return ID;
+    }
+
+    @Override
+    public String toString() {
+        return NAME;
+    }
+
+    /**
+     * Generates a variation of a block.
+     */
+    @FunctionalInterface
+    public interface Generator {
+        /**
+         * @param builder the builder of the {@link VariedBlock}, also its settings
+         * @param original the base block
+         * @return the block of this variation
+         */
+        Block generate(VariedBlock.Builder builder, Block original);
     }
 }
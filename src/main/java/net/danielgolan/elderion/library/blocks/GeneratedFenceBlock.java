@@ -0,0 +1,43 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FenceBlock;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.item.ItemPlacementContext;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.WorldAccess;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A vanilla fence, which decides its connections with {@link NeighborConnections}.
+ */
+public class GeneratedFenceBlock extends FenceBlock {
+    public GeneratedFenceBlock(Settings settings) {
+        super(settings);
+    }
+
+    @Override
+    public BlockState getPlacementState(@NotNull ItemPlacementContext ctx) {
+        boolean wooden = NeighborConnections.wooden(getDefaultState());
+        BlockState state = getDefaultState().with(WATERLOGGED, ctx.getWorld().getFluidState(ctx.getBlockPos()).getFluid() == Fluids.WATER);
+
+        for (Direction direction : Direction.Type.HORIZONTAL) {
+            BlockPos neighborPos = ctx.getBlockPos().offset(direction);
+            state = state.with(FACING_PROPERTIES.get(direction), NeighborConnections.fence(ctx.getWorld().getBlockState(neighborPos),
+                    ctx.getWorld(), neighborPos, direction.getOpposite(), wooden));
+        }
+
+        return state;
+    }
+
+    @Override
+    public BlockState getStateForNeighborUpdate(BlockState state, Direction direction, BlockState neighborState, WorldAccess world, BlockPos pos, BlockPos neighborPos) {
+        if (!direction.getAxis().isHorizontal())
+            return super.getStateForNeighborUpdate(state, direction, neighborState, world, pos, neighborPos);
+
+        if (state.get(WATERLOGGED)) world.createAndScheduleFluidTick(pos, Fluids.WATER, Fluids.WATER.getTickRate(world));
+        return state.with(FACING_PROPERTIES.get(direction), NeighborConnections.fence(neighborState, world, neighborPos,
+                direction.getOpposite(), NeighborConnections.wooden(getDefaultState())));
+    }
+}
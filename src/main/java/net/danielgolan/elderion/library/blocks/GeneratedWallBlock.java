@@ -0,0 +1,106 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.WallBlock;
+import net.minecraft.block.enums.WallShape;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.item.ItemPlacementContext;
+import net.minecraft.state.property.EnumProperty;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.WorldAccess;
+import net.minecraft.world.WorldView;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A vanilla wall, which decides its connections with {@link NeighborConnections}. Its sides and post are then
+ * worked out exactly like the vanilla walls.
+ */
+public class GeneratedWallBlock extends WallBlock {
+    private static final VoxelShape TALL_POST_SHAPE = Block.createCuboidShape(7, 0, 7, 9, 16, 9);
+    private static final VoxelShape TALL_NORTH_SHAPE = Block.createCuboidShape(7, 0, 0, 9, 16, 9);
+    private static final VoxelShape TALL_SOUTH_SHAPE = Block.createCuboidShape(7, 0, 7, 9, 16, 16);
+    private static final VoxelShape TALL_WEST_SHAPE = Block.createCuboidShape(0, 0, 7, 9, 16, 9);
+    private static final VoxelShape TALL_EAST_SHAPE = Block.createCuboidShape(7, 0, 7, 16, 16, 9);
+
+    public GeneratedWallBlock(Settings settings) {
+        super(settings);
+    }
+
+    @Override
+    public BlockState getPlacementState(@NotNull ItemPlacementContext ctx) {
+        WorldView world = ctx.getWorld();
+        BlockPos pos = ctx.getBlockPos();
+        BlockState state = getDefaultState().with(WATERLOGGED, world.getFluidState(pos).getFluid() == Fluids.WATER);
+
+        BlockPos abovePos = pos.up();
+        return withSides(world, state, abovePos, world.getBlockState(abovePos), connects(world, pos, Direction.NORTH),
+                connects(world, pos, Direction.EAST), connects(world, pos, Direction.SOUTH), connects(world, pos, Direction.WEST));
+    }
+
+    @Override
+    public BlockState getStateForNeighborUpdate(BlockState state, Direction direction, BlockState neighborState, WorldAccess world, BlockPos pos, BlockPos neighborPos) {
+        if (state.get(WATERLOGGED)) world.createAndScheduleFluidTick(pos, Fluids.WATER, Fluids.WATER.getTickRate(world));
+        if (direction == Direction.DOWN) return state;
+
+        boolean north = isConnected(state, NORTH_SHAPE), east = isConnected(state, EAST_SHAPE);
+        boolean south = isConnected(state, SOUTH_SHAPE), west = isConnected(state, WEST_SHAPE);
+        if (direction == Direction.UP) return withSides(world, state, neighborPos, neighborState, north, east, south, west);
+
+        boolean connected = NeighborConnections.wall(neighborState, world, neighborPos, direction.getOpposite());
+        switch (direction) {
+            case NORTH -> north = connected;
+            case EAST -> east = connected;
+            case SOUTH -> south = connected;
+            default -> west = connected;
+        }
+
+        BlockPos abovePos = pos.up();
+        return withSides(world, state, abovePos, world.getBlockState(abovePos), north, east, south, west);
+    }
+
+    private static boolean connects(@NotNull WorldView world, @NotNull BlockPos pos, @NotNull Direction direction) {
+        BlockPos neighborPos = pos.offset(direction);
+        return NeighborConnections.wall(world.getBlockState(neighborPos), world, neighborPos, direction.getOpposite());
+    }
+
+    private static boolean isConnected(@NotNull BlockState state, EnumProperty<WallShape> side) {
+        return state.get(side) != WallShape.NONE;
+    }
+
+    private static BlockState withSides(WorldView world, @NotNull BlockState state, BlockPos abovePos, @NotNull BlockState above,
+                                        boolean north, boolean east, boolean south, boolean west) {
+        VoxelShape aboveShape = above.getCollisionShape(world, abovePos).getFace(Direction.DOWN);
+        state = state.with(NORTH_SHAPE, side(north, aboveShape, TALL_NORTH_SHAPE)).with(EAST_SHAPE, side(east, aboveShape, TALL_EAST_SHAPE))
+                .with(SOUTH_SHAPE, side(south, aboveShape, TALL_SOUTH_SHAPE)).with(WEST_SHAPE, side(west, aboveShape, TALL_WEST_SHAPE));
+        return state.with(UP, shouldHavePost(state, above, aboveShape));
+    }
+
+    private static WallShape side(boolean connected, VoxelShape aboveShape, VoxelShape tallShape) {
+        if (!connected) return WallShape.NONE;
+        return isFullSquare(aboveShape, tallShape) ? WallShape.TALL : WallShape.LOW;
+    }
+
+    private static boolean shouldHavePost(@NotNull BlockState state, @NotNull BlockState above, VoxelShape aboveShape) {
+        if (above.getBlock() instanceof WallBlock && above.get(UP)) return true;
+
+        WallShape north = state.get(NORTH_SHAPE), east = state.get(EAST_SHAPE);
+        WallShape south = state.get(SOUTH_SHAPE), west = state.get(WEST_SHAPE);
+        boolean noNorth = north == WallShape.NONE, noEast = east == WallShape.NONE;
+        boolean noSouth = south == WallShape.NONE, noWest = west == WallShape.NONE;
+        //ends, corners, crossings and lone posts
+        if (noNorth && noSouth && noWest && noEast || noNorth != noSouth || noWest != noEast) return true;
+        if (north == WallShape.TALL && south == WallShape.TALL || east == WallShape.TALL && west == WallShape.TALL) return false;
+
+        return above.isIn(BlockTags.WALL_POST_OVERRIDE) || isFullSquare(aboveShape, TALL_POST_SHAPE);
+    }
+
+    private static boolean isFullSquare(VoxelShape aboveShape, VoxelShape tallShape) {
+        return !VoxelShapes.matchesAnywhere(tallShape, aboveShape, BooleanBiFunction.ONLY_FIRST);
+    }
+}
@@ -0,0 +1,134 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.minecraft.block.*;
+import net.minecraft.entity.ai.pathing.NavigationType;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.item.ItemPlacementContext;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.item.LeadItem;
+import net.minecraft.state.StateManager;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.Hand;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldAccess;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A fence which can't be waterlogged: it connects, and holds leads, like a vanilla fence. 16 states instead of 32.
+ * <p>
+ * {@link HorizontalConnectingBlock} is {@link Waterloggable}, so the fluid hooks it inherits are overridden to refuse
+ * every fluid, as they'd otherwise read the missing {@link net.minecraft.state.property.Properties#WATERLOGGED}.
+ */
+public class LiteFenceBlock extends HorizontalConnectingBlock implements LiteVariation {
+    private final VoxelShape[] cullingShapes;
+
+    public LiteFenceBlock(Settings settings) {
+        super(2, 2, 16, 16, 24, settings);
+        setDefaultState(getStateManager().getDefaultState()
+                .with(NORTH, false).with(EAST, false).with(SOUTH, false).with(WEST, false));
+        cullingShapes = createShapes(2, 1, 16, 6, 15);
+    }
+
+    @Override
+    public Block vanilla() {
+        return Blocks.OAK_FENCE;
+    }
+
+    @Override
+    protected void appendProperties(StateManager.Builder<Block, BlockState> builder) {
+        builder.add(NORTH, EAST, WEST, SOUTH);
+    }
+
+    @Override
+    public FluidState getFluidState(BlockState state) {
+        return Fluids.EMPTY.getDefaultState();
+    }
+
+    @Override
+    public boolean canFillWithFluid(BlockView world, BlockPos pos, BlockState state, Fluid fluid) {
+        return false;
+    }
+
+    @Override
+    public boolean tryFillWithFluid(WorldAccess world, BlockPos pos, BlockState state, FluidState fluidState) {
+        return false;
+    }
+
+    @Override
+    public ItemStack tryDrainFluid(WorldAccess world, BlockPos pos, BlockState state) {
+        return ItemStack.EMPTY;
+    }
+
+    @Override
+    public boolean isTranslucent(BlockState state, BlockView world, BlockPos pos) {
+        return true;
+    }
+
+    @Override
+    public VoxelShape getCullingShape(BlockState state, BlockView world, BlockPos pos) {
+        return cullingShapes[getShapeIndex(state)];
+    }
+
+    @Override
+    public VoxelShape getCameraCollisionShape(BlockState state, BlockView world, BlockPos pos, ShapeContext context) {
+        return getOutlineShape(state, world, pos, context);
+    }
+
+    @Override
+    public boolean canPathfindThrough(BlockState state, BlockView world, BlockPos pos, NavigationType type) {
+        return false;
+    }
+
+    /**
+     * @param state the neighbor
+     * @param neighborIsFullSquare whether the side of the neighbor facing this fence is a full square
+     * @param side the side of the neighbor facing this fence
+     * @return whether this fence connects to the neighbor
+     */
+    public boolean canConnect(@NotNull BlockState state, boolean neighborIsFullSquare, Direction side) {
+        return !cannotConnect(state) && neighborIsFullSquare || canConnectToFence(state) || LiteFenceGateBlock.connects(state, side);
+    }
+
+    private boolean canConnectToFence(@NotNull BlockState state) {
+        return state.isIn(BlockTags.FENCES) && state.isIn(BlockTags.WOODEN_FENCES) == getDefaultState().isIn(BlockTags.WOODEN_FENCES);
+    }
+
+    @Override
+    public ActionResult onUse(BlockState state, World world, BlockPos pos, PlayerEntity player, Hand hand, BlockHitResult hit) {
+        if (world.isClient) return player.getStackInHand(hand).isOf(Items.LEAD) ? ActionResult.SUCCESS : ActionResult.PASS;
+        return LeadItem.attachHeldMobsToBlock(player, world, pos);
+    }
+
+    @Override
+    public BlockState getPlacementState(@NotNull ItemPlacementContext ctx) {
+        boolean wooden = NeighborConnections.wooden(getDefaultState());
+        BlockState state = getDefaultState();
+
+        for (Direction direction : Direction.Type.HORIZONTAL) {
+            BlockPos neighborPos = ctx.getBlockPos().offset(direction);
+            state = state.with(FACING_PROPERTIES.get(direction), NeighborConnections.fence(ctx.getWorld().getBlockState(neighborPos),
+                    ctx.getWorld(), neighborPos, direction.getOpposite(), wooden));
+        }
+
+        return state;
+    }
+
+    @Override
+    public BlockState getStateForNeighborUpdate(BlockState state, Direction direction, BlockState neighborState, WorldAccess world, BlockPos pos, BlockPos neighborPos) {
+        if (!direction.getAxis().isHorizontal())
+            return super.getStateForNeighborUpdate(state, direction, neighborState, world, pos, neighborPos);
+
+        return state.with(FACING_PROPERTIES.get(direction), NeighborConnections.fence(neighborState, world, neighborPos,
+                direction.getOpposite(), NeighborConnections.wooden(getDefaultState())));
+    }
+}
@@ -0,0 +1,127 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.minecraft.block.*;
+import net.minecraft.entity.ai.pathing.NavigationType;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.ItemPlacementContext;
+import net.minecraft.state.StateManager;
+import net.minecraft.state.property.BooleanProperty;
+import net.minecraft.state.property.Properties;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.Hand;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldEvents;
+import net.minecraft.world.event.GameEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A fence gate without the {@code in_wall} property: it opens, closes and is powered like a vanilla fence gate,
+ * but isn't lowered between walls. 16 states instead of 32.
+ * <p>
+ * Vanilla fences and walls only connect to vanilla fence gates; lite fences and walls connect to both.
+ */
+public class LiteFenceGateBlock extends HorizontalFacingBlock implements LiteVariation {
+    public static final BooleanProperty OPEN = Properties.OPEN;
+    public static final BooleanProperty POWERED = Properties.POWERED;
+
+    private static final VoxelShape Z_AXIS_SHAPE = BlockShapes.intern(Block.createCuboidShape(0, 0, 6, 16, 16, 10));
+    private static final VoxelShape X_AXIS_SHAPE = BlockShapes.intern(Block.createCuboidShape(6, 0, 0, 10, 16, 16));
+    private static final VoxelShape Z_AXIS_COLLISION_SHAPE = BlockShapes.intern(Block.createCuboidShape(0, 0, 6, 16, 24, 10));
+    private static final VoxelShape X_AXIS_COLLISION_SHAPE = BlockShapes.intern(Block.createCuboidShape(6, 0, 0, 10, 24, 16));
+    private static final VoxelShape Z_AXIS_CULL_SHAPE = BlockShapes.intern(VoxelShapes.union(
+            Block.createCuboidShape(0, 5, 7, 2, 16, 9), Block.createCuboidShape(14, 5, 7, 16, 16, 9)));
+    private static final VoxelShape X_AXIS_CULL_SHAPE = BlockShapes.intern(VoxelShapes.union(
+            Block.createCuboidShape(7, 5, 0, 9, 16, 2), Block.createCuboidShape(7, 5, 14, 9, 16, 16)));
+
+    public LiteFenceGateBlock(Settings settings) {
+        super(settings);
+        setDefaultState(getStateManager().getDefaultState().with(OPEN, false).with(POWERED, false));
+    }
+
+    /**
+     * @return whether a fence or wall on this side of this state connects to it, if it's a fence gate
+     */
+    static boolean connects(@NotNull BlockState state, Direction side) {
+        Block block = state.getBlock();
+        if (block instanceof FenceGateBlock) return FenceGateBlock.canWallConnect(state, side);
+
+        return block instanceof LiteFenceGateBlock && state.get(FACING).getAxis() == side.rotateYClockwise().getAxis();
+    }
+
+    @Override
+    public Block vanilla() {
+        return Blocks.OAK_FENCE_GATE;
+    }
+
+    @Override
+    protected void appendProperties(StateManager.Builder<Block, BlockState> builder) {
+        builder.add(FACING, OPEN, POWERED);
+    }
+
+    @Override
+    public VoxelShape getOutlineShape(BlockState state, BlockView world, BlockPos pos, ShapeContext context) {
+        return state.get(FACING).getAxis() == Direction.Axis.X ? X_AXIS_SHAPE : Z_AXIS_SHAPE;
+    }
+
+    @Override
+    public VoxelShape getCollisionShape(BlockState state, BlockView world, BlockPos pos, ShapeContext context) {
+        if (state.get(OPEN)) return VoxelShapes.empty();
+        return state.get(FACING).getAxis() == Direction.Axis.Z ? Z_AXIS_COLLISION_SHAPE : X_AXIS_COLLISION_SHAPE;
+    }
+
+    @Override
+    public VoxelShape getCullingShape(BlockState state, BlockView world, BlockPos pos) {
+        return state.get(FACING).getAxis() == Direction.Axis.X ? X_AXIS_CULL_SHAPE : Z_AXIS_CULL_SHAPE;
+    }
+
+    @Override
+    public boolean canPathfindThrough(BlockState state, BlockView world, BlockPos pos, NavigationType type) {
+        return switch (type) {
+            case LAND, AIR -> state.get(OPEN);
+            case WATER -> false;
+        };
+    }
+
+    @Override
+    public BlockState getPlacementState(@NotNull ItemPlacementContext ctx) {
+        boolean powered = ctx.getWorld().isReceivingRedstonePower(ctx.getBlockPos());
+        return getDefaultState().with(FACING, ctx.getPlayerFacing()).with(OPEN, powered).with(POWERED, powered);
+    }
+
+    @Override
+    public ActionResult onUse(BlockState state, World world, BlockPos pos, PlayerEntity player, Hand hand, BlockHitResult hit) {
+        if (state.get(OPEN)) state = state.with(OPEN, false);
+        else {
+            //opens away from the player
+            Direction direction = player.getHorizontalFacing();
+            if (state.get(FACING) == direction.getOpposite()) state = state.with(FACING, direction);
+            state = state.with(OPEN, true);
+        }
+
+        world.setBlockState(pos, state, Block.NOTIFY_LISTENERS | Block.REDRAW_ON_MAIN_THREAD);
+        boolean open = state.get(OPEN);
+        world.syncWorldEvent(player, open ? WorldEvents.FENCE_GATE_OPENED : WorldEvents.FENCE_GATE_CLOSED, pos, 0);
+        world.emitGameEvent(player, open ? GameEvent.BLOCK_OPEN : GameEvent.BLOCK_CLOSE, pos);
+        return ActionResult.success(world.isClient);
+    }
+
+    @Override
+    public void neighborUpdate(BlockState state, World world, BlockPos pos, Block block, BlockPos fromPos, boolean notify) {
+        if (world.isClient) return;
+
+        boolean powered = world.isReceivingRedstonePower(pos);
+        if (state.get(POWERED) == powered) return;
+
+        world.setBlockState(pos, state.with(POWERED, powered).with(OPEN, powered), Block.NOTIFY_LISTENERS);
+        if (state.get(OPEN) != powered) {
+            world.syncWorldEvent(null, powered ? WorldEvents.FENCE_GATE_OPENED : WorldEvents.FENCE_GATE_CLOSED, pos, 0);
+            world.emitGameEvent(null, powered ? GameEvent.BLOCK_OPEN : GameEvent.BLOCK_CLOSE, pos);
+        }
+    }
+}
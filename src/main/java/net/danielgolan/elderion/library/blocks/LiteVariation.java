@@ -0,0 +1,21 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.minecraft.block.Block;
+
+/**
+ * A variation with fewer block states than the vanilla block it replaces, generated when
+ * {@linkplain VariedBlock.Builder#lite(boolean) lite} variations are enabled.
+ */
+public interface LiteVariation {
+    /**
+     * @return a vanilla block of the kind this variation replaces
+     */
+    Block vanilla();
+
+    /**
+     * @return how many block states this variation saves compared to its vanilla block
+     */
+    default int savedStates() {
+        return vanilla().getStateManager().getStates().size() - ((Block) this).getStateManager().getStates().size();
+    }
+}
@@ -0,0 +1,211 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.minecraft.block.*;
+import net.minecraft.block.enums.WallShape;
+import net.minecraft.entity.ai.pathing.NavigationType;
+import net.minecraft.item.ItemPlacementContext;
+import net.minecraft.state.StateManager;
+import net.minecraft.state.property.BooleanProperty;
+import net.minecraft.state.property.EnumProperty;
+import net.minecraft.state.property.Properties;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.util.BlockMirror;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.WorldAccess;
+import net.minecraft.world.WorldView;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A wall whose sides are never tall, and which can't be waterlogged: it connects, and raises its post, like a vanilla
+ * wall, but a connected side stays low even under a block. 32 states instead of 324.
+ * <p>
+ * Its sides use the names of the vanilla wall sides, but only their {@code none} and {@code low} values, so the vanilla
+ * wall blockstate files don't fit it: their {@code tall} conditions fail to load. A lite wall needs a multipart
+ * blockstate file of its own, like {@code cobblestone_wall.json} without its {@code tall} parts: the post model when
+ * {@code up} is {@code true}, and the low side model, rotated like vanilla, when a side is {@code low}. The vanilla
+ * {@code template_wall_post}, {@code template_wall_side} and {@code template_wall_inventory} models still fit it.
+ */
+public class LiteWallBlock extends Block implements LiteVariation {
+    public static final BooleanProperty UP = Properties.UP;
+    public static final EnumProperty<WallShape> NORTH = side("north");
+    public static final EnumProperty<WallShape> EAST = side("east");
+    public static final EnumProperty<WallShape> SOUTH = side("south");
+    public static final EnumProperty<WallShape> WEST = side("west");
+
+    private static final VoxelShape TALL_POST_SHAPE = Block.createCuboidShape(7, 0, 7, 9, 16, 9);
+    //indexed by shapeIndex(state)
+    private static final VoxelShape[] SHAPES = createShapes(16, 14), COLLISION_SHAPES = createShapes(24, 24);
+
+    public LiteWallBlock(Settings settings) {
+        super(settings);
+        setDefaultState(getStateManager().getDefaultState().with(UP, true)
+                .with(NORTH, WallShape.NONE).with(EAST, WallShape.NONE).with(SOUTH, WallShape.NONE).with(WEST, WallShape.NONE));
+    }
+
+    /**
+     * @return a side without {@link WallShape#TALL}, which vanilla wall blockstate files still refer to
+     */
+    private static @NotNull EnumProperty<WallShape> side(String name) {
+        return EnumProperty.of(name, WallShape.class, WallShape.NONE, WallShape.LOW);
+    }
+
+    /**
+     * @return the side of a wall facing this direction
+     */
+    public static EnumProperty<WallShape> side(@NotNull Direction direction) {
+        return switch (direction) {
+            case NORTH -> NORTH;
+            case EAST -> EAST;
+            case SOUTH -> SOUTH;
+            case WEST -> WEST;
+            default -> throw new IllegalArgumentException("Walls have no " + direction + " side");
+        };
+    }
+
+    /**
+     * @return a shape of every combination of post and sides, like the vanilla walls
+     */
+    private static VoxelShape @NotNull [] createShapes(float postHeight, float sideHeight) {
+        VoxelShape post = Block.createCuboidShape(4, 0, 4, 12, postHeight, 12);
+        VoxelShape north = Block.createCuboidShape(5, 0, 0, 11, sideHeight, 11);
+        VoxelShape east = Block.createCuboidShape(5, 0, 5, 16, sideHeight, 11);
+        VoxelShape south = Block.createCuboidShape(5, 0, 5, 11, sideHeight, 16);
+        VoxelShape west = Block.createCuboidShape(0, 0, 5, 11, sideHeight, 11);
+
+        VoxelShape[] shapes = new VoxelShape[32];
+        for (int i = 0; i < shapes.length; i++) {
+            VoxelShape shape = VoxelShapes.empty();
+            if ((i & 16) != 0) shape = VoxelShapes.union(shape, post);
+            if ((i & 8) != 0) shape = VoxelShapes.union(shape, north);
+            if ((i & 4) != 0) shape = VoxelShapes.union(shape, east);
+            if ((i & 2) != 0) shape = VoxelShapes.union(shape, south);
+            if ((i & 1) != 0) shape = VoxelShapes.union(shape, west);
+            shapes[i] = BlockShapes.intern(shape);
+        }
+
+        return shapes;
+    }
+
+    private static int shapeIndex(@NotNull BlockState state) {
+        return (state.get(UP) ? 16 : 0) | (state.get(NORTH) != WallShape.NONE ? 8 : 0) | (state.get(EAST) != WallShape.NONE ? 4 : 0) |
+                (state.get(SOUTH) != WallShape.NONE ? 2 : 0) | (state.get(WEST) != WallShape.NONE ? 1 : 0);
+    }
+
+    @Override
+    public Block vanilla() {
+        return Blocks.COBBLESTONE_WALL;
+    }
+
+    @Override
+    protected void appendProperties(StateManager.Builder<Block, BlockState> builder) {
+        builder.add(UP, NORTH, EAST, WEST, SOUTH);
+    }
+
+    @Override
+    public VoxelShape getOutlineShape(BlockState state, BlockView world, BlockPos pos, ShapeContext context) {
+        return SHAPES[shapeIndex(state)];
+    }
+
+    @Override
+    public VoxelShape getCollisionShape(BlockState state, BlockView world, BlockPos pos, ShapeContext context) {
+        return COLLISION_SHAPES[shapeIndex(state)];
+    }
+
+    @Override
+    public boolean isTranslucent(BlockState state, BlockView world, BlockPos pos) {
+        return true;
+    }
+
+    @Override
+    public boolean canPathfindThrough(BlockState state, BlockView world, BlockPos pos, NavigationType type) {
+        return false;
+    }
+
+    /**
+     * @param state the neighbor
+     * @param faceFullSquare whether the side of the neighbor facing this wall is a full square
+     * @param side the side of the neighbor facing this wall
+     * @return whether this wall connects to the neighbor
+     */
+    public boolean shouldConnectTo(@NotNull BlockState state, boolean faceFullSquare, Direction side) {
+        return state.isIn(BlockTags.WALLS) || !cannotConnect(state) && faceFullSquare || state.getBlock() instanceof PaneBlock ||
+                LiteFenceGateBlock.connects(state, side);
+    }
+
+    @Override
+    public BlockState getPlacementState(@NotNull ItemPlacementContext ctx) {
+        WorldView world = ctx.getWorld();
+        BlockState state = getDefaultState();
+
+        for (Direction direction : Direction.Type.HORIZONTAL) {
+            BlockPos neighborPos = ctx.getBlockPos().offset(direction);
+            state = state.with(side(direction), NeighborConnections.wall(world.getBlockState(neighborPos), world, neighborPos,
+                    direction.getOpposite()) ? WallShape.LOW : WallShape.NONE);
+        }
+
+        BlockPos abovePos = ctx.getBlockPos().up();
+        return withPost(world, state, abovePos, world.getBlockState(abovePos));
+    }
+
+    @Override
+    public BlockState getStateForNeighborUpdate(BlockState state, Direction direction, BlockState neighborState, WorldAccess world, BlockPos pos, BlockPos neighborPos) {
+        if (direction == Direction.DOWN)
+            return super.getStateForNeighborUpdate(state, direction, neighborState, world, pos, neighborPos);
+        if (direction == Direction.UP) return withPost(world, state, neighborPos, neighborState);
+
+        state = state.with(side(direction), NeighborConnections.wall(neighborState, world, neighborPos, direction.getOpposite()) ?
+                WallShape.LOW : WallShape.NONE);
+
+        BlockPos abovePos = pos.up();
+        return withPost(world, state, abovePos, world.getBlockState(abovePos));
+    }
+
+    private static BlockState withPost(WorldView world, @NotNull BlockState state, BlockPos abovePos, @NotNull BlockState above) {
+        return state.with(UP, shouldHavePost(state, above, world, abovePos));
+    }
+
+    /**
+     * The same as the vanilla walls, which never have tall sides here.
+     */
+    private static boolean shouldHavePost(@NotNull BlockState state, @NotNull BlockState above, WorldView world, BlockPos abovePos) {
+        if (above.getBlock() instanceof WallBlock && above.get(WallBlock.UP) ||
+                above.getBlock() instanceof LiteWallBlock && above.get(UP)) return true;
+
+        boolean north = state.get(NORTH) == WallShape.NONE, east = state.get(EAST) == WallShape.NONE;
+        boolean south = state.get(SOUTH) == WallShape.NONE, west = state.get(WEST) == WallShape.NONE;
+        //ends, corners, crossings and lone posts
+        if (north && south && west && east || north != south || west != east) return true;
+
+        VoxelShape aboveShape = above.getCollisionShape(world, abovePos).getFace(Direction.DOWN);
+        return above.isIn(BlockTags.WALL_POST_OVERRIDE) ||
+                !VoxelShapes.matchesAnywhere(TALL_POST_SHAPE, aboveShape, BooleanBiFunction.ONLY_FIRST);
+    }
+
+    @Override
+    public BlockState rotate(BlockState state, BlockRotation rotation) {
+        return switch (rotation) {
+            case CLOCKWISE_180 -> state.with(NORTH, state.get(SOUTH)).with(EAST, state.get(WEST))
+                    .with(SOUTH, state.get(NORTH)).with(WEST, state.get(EAST));
+            case COUNTERCLOCKWISE_90 -> state.with(NORTH, state.get(EAST)).with(EAST, state.get(SOUTH))
+                    .with(SOUTH, state.get(WEST)).with(WEST, state.get(NORTH));
+            case CLOCKWISE_90 -> state.with(NORTH, state.get(WEST)).with(EAST, state.get(NORTH))
+                    .with(SOUTH, state.get(EAST)).with(WEST, state.get(SOUTH));
+            default -> state;
+        };
+    }
+
+    @Override
+    public BlockState mirror(BlockState state, BlockMirror mirror) {
+        return switch (mirror) {
+            case LEFT_RIGHT -> state.with(NORTH, state.get(SOUTH)).with(SOUTH, state.get(NORTH));
+            case FRONT_BACK -> state.with(EAST, state.get(WEST)).with(WEST, state.get(EAST));
+            default -> super.mirror(state, mirror);
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.fabricmc.fabric.api.event.registry.RegistryIdRemapCallback;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.PaneBlock;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.EmptyBlockView;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decides whether generated fences and walls connect to their neighbors, with the same rules as the vanilla ones.
+ * <p>
+ * Everything a connection depends on is computed once per neighbor state, and kept in a table indexed by its raw state
+ * ID: its tags, whether it's a pane, on which sides it's a fence gate to connect to, and which of its sides are full
+ * squares. Sides are full squares the same at every position, unless the block has dynamic bounds, in which case
+ * they're checked in the world like vanilla does. The table is dropped when tags are loaded or raw IDs are remapped.
+ */
+public final class NeighborConnections {
+    private static final int COMPUTED = 1 << 31;
+    private static final int CANNOT_CONNECT = 1, WALL = 1 << 1, PANE = 1 << 2, FENCE = 1 << 3, WOODEN_FENCE = 1 << 4, DYNAMIC = 1 << 5;
+    //shifted by the horizontal index of the side
+    private static final int SOLID = 1 << 8, GATE = 1 << 12;
+
+    private static final AtomicReference<int[]> table = new AtomicReference<>(new int[0]);
+
+    static {
+        RegistryIdRemapCallback.event(Registry.BLOCK).register(state -> invalidate());
+    }
+
+    private NeighborConnections() { }
+
+    /**
+     * Drops everything computed so far. Called when tags are loaded.
+     */
+    public static void invalidate() {
+        table.set(new int[0]);
+    }
+
+    /**
+     * @param neighbor the state of the neighbor
+     * @param side the side of the neighbor facing the fence
+     * @param wooden whether the fence is a wooden fence
+     * @return whether a fence connects to this neighbor
+     */
+    static boolean fence(@NotNull BlockState neighbor, BlockView world, BlockPos neighborPos, Direction side, boolean wooden) {
+        int flags = flags(neighbor);
+        return (flags & CANNOT_CONNECT) == 0 && solid(flags, neighbor, world, neighborPos, side) ||
+                (flags & FENCE) != 0 && ((flags & WOODEN_FENCE) != 0) == wooden || (flags & GATE << side.getHorizontal()) != 0;
+    }
+
+    /**
+     * @param neighbor the state of the neighbor
+     * @param side the side of the neighbor facing the wall
+     * @return whether a wall connects to this neighbor
+     */
+    static boolean wall(@NotNull BlockState neighbor, BlockView world, BlockPos neighborPos, Direction side) {
+        int flags = flags(neighbor);
+        return (flags & (WALL | PANE | GATE << side.getHorizontal())) != 0 ||
+                (flags & CANNOT_CONNECT) == 0 && solid(flags, neighbor, world, neighborPos, side);
+    }
+
+    /**
+     * @return whether a fence with this state is a wooden fence
+     */
+    static boolean wooden(@NotNull BlockState state) {
+        return (flags(state) & WOODEN_FENCE) != 0;
+    }
+
+    private static boolean solid(int flags, BlockState state, BlockView world, BlockPos pos, @NotNull Direction side) {
+        return (flags & DYNAMIC) != 0 ? state.isSideSolidFullSquare(world, pos, side) : (flags & SOLID << side.getHorizontal()) != 0;
+    }
+
+    private static int flags(@NotNull BlockState state) {
+        int id = Block.STATE_IDS.getRawId(state);
+        if (id < 0) return compute(state);
+
+        int[] table = NeighborConnections.table.get();
+        if (id < table.length && table[id] != 0) return table[id];
+
+        int flags = compute(state);
+        if (id < table.length) table[id] = flags;
+        else {
+            int[] grown = Arrays.copyOf(table, Math.max(id + 1, Block.STATE_IDS.size()));
+            grown[id] = flags;
+            //lost if the table was dropped or grown meanwhile, and computed again next time
+            NeighborConnections.table.compareAndSet(table, grown);
+        }
+
+        return flags;
+    }
+
+    private static int compute(@NotNull BlockState state) {
+        int flags = COMPUTED;
+        if (Block.cannotConnect(state)) flags |= CANNOT_CONNECT;
+        if (state.isIn(BlockTags.WALLS)) flags |= WALL;
+        if (state.getBlock() instanceof PaneBlock) flags |= PANE;
+        if (state.isIn(BlockTags.FENCES)) flags |= FENCE;
+        if (state.isIn(BlockTags.WOODEN_FENCES)) flags |= WOODEN_FENCE;
+
+        boolean dynamic = state.getBlock().hasDynamicBounds();
+        if (dynamic) flags |= DYNAMIC;
+
+        for (Direction side : Direction.Type.HORIZONTAL) {
+            if (LiteFenceGateBlock.connects(state, side)) flags |= GATE << side.getHorizontal();
+            //the same way vanilla caches it for blocks without dynamic bounds
+            if (!dynamic && state.isSideSolidFullSquare(EmptyBlockView.INSTANCE, BlockPos.ORIGIN, side))
+                flags |= SOLID << side.getHorizontal();
+        }
+
+        return flags;
+    }
+}
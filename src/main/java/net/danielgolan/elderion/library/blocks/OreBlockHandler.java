@@ -1,6 +1,8 @@
 package net.danielgolan.elderion.library.blocks;
 
 import net.danielgolan.elderion.library.ElderionIdentifier;
+import net.danielgolan.elderion.library.profiling.ElderlyEvent;
+import net.danielgolan.elderion.library.profiling.StartupProfiler;
 import net.minecraft.block.*;
 import net.minecraft.item.BlockItem;
 import net.minecraft.util.math.intprovider.UniformIntProvider;
@@ -104,7 +106,7 @@ public final class OreBlockHandler extends BlockHandler<OreBlockHandler, OreBloc
 
         @Override
         public @NotNull OreBlockHandler build(ElderionIdentifier identifier) {
-            return new OreBlockHandler(this, identifier);
+            return StartupProfiler.time(new ElderlyEvent.Build(), identifier, null, () -> new OreBlockHandler(this, identifier));
         }
 
         @Override
@@ -2,6 +2,9 @@ package net.danielgolan.elderion.library.blocks;
 
 import net.danielgolan.elderion.library.ElderionIdentifier;
 import net.danielgolan.elderion.library.Elderly;
+import net.danielgolan.elderion.library.RegistrationBatch;
+import net.danielgolan.elderion.library.profiling.ElderlyEvent;
+import net.danielgolan.elderion.library.profiling.StartupProfiler;
 import net.fabricmc.fabric.api.item.v1.FabricItemSettings;
 import net.minecraft.block.*;
 import net.minecraft.item.BlockItem;
@@ -16,67 +19,150 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A class used to generate multiple variations of a block
  */
 public final class VariedBlock extends BlockHandler<VariedBlock, Block, VariedBlock.Builder> implements Elderly.RecipeManager {
-    private final HashMap<BlockVariation, Block> blocks = new HashMap<>();
-    private final HashMap<BlockVariation, BlockItem> items = new HashMap<>();
+    //indexed by BlockVariation#ID, of the variations registered when this block was built
+    private final Block[] blocks;
+    private final BlockItem[] items;
 
     private final List<Recipe<?>> recipes = new ArrayList<>();
 
+    private final boolean recipesEnabled, revertRecipesEnabled;
+    private boolean prepared = false;
+
+    //indexed by BlockVariation#ID, whether the variation exists in this block
+    private final boolean[] variations;
+    /**
+     * Kept until all variations are generated, when {@linkplain Builder#lazy(boolean) lazy}
+     */
+    private Builder builder;
+    private FabricItemSettings itemSettings;
+
     private VariedBlock(@NotNull Builder builder, ElderionIdentifier identifier) {
         super(builder, identifier);
 
-        FabricItemSettings settings = ItemSettingsOf(builder);
-        blocks.put(BlockVariation.BLOCK, builder.generator().generate(builder));
-        items.put(BlockVariation.BLOCK, new BlockItem(block(), settings));
+        recipesEnabled = builder.recipesEnabled();
+        revertRecipesEnabled = builder.revertRecipesEnabled();
 
-        builder.variations.forEach((variation, bool) -> {
-            if (variation == BlockVariation.BLOCK) return;
+        int count = BlockVariation.count();
+        blocks = new Block[count];
+        items = new BlockItem[count];
+        variations = new boolean[count];
 
-            blocks.put(variation, builder.generator().generateVariation(builder, block(), variation));
-            items.put(variation, new BlockItem(block(variation), settings));
+        variations[BlockVariation.BLOCK.ID] = true;
+        builder.variations.forEach((variation, enabled) -> {
+            if (enabled) variations[variation.ID] = true;
+        });
 
-            if (builder.recipesEnabled() && variation.RECIPE_RESULT > 0) {
-                //creation of normal recipe
-                StonecuttingRecipe stonecuttingRecipe = new StonecuttingRecipe(identifier.toIdentifier(variation.SUFFIX),
-                        variation.SUFFIX, Ingredient.ofItems(item()), new ItemStack(item(variation),
-                        variation.RECIPE_RESULT));
+        this.builder = builder;
+        if (!builder.lazy()) materialize();
+    }
 
-                recipes.add(stonecuttingRecipe);
+    /**
+     * Generates all the variations of this block which weren't generated yet.
+     * In {@linkplain Builder#lazy(boolean) lazy} mode, this must be called from the main thread.
+     */
+    @Override
+    public void materialize() {
+        if (builder == null) return;
 
-                //creation of additional recipe
-                if (builder.revertRecipesEnabled() && variation.RECIPE_RESULT == 1) {
-                    StonecuttingRecipe revertRecipe = new StonecuttingRecipe(identifier.toIdentifier("revert" + variation.SUFFIX),
-                            identifier.toString(), Ingredient.ofItems(item(variation)), new ItemStack(item(), 1));
+        BlockVariation[] registered = BlockVariation.registered();
+        for (int id = 0; id < blocks.length; id++) generate(registered[id]);
 
-                    recipes.add(revertRecipe);
-                }
+        builder = null;
+        itemSettings = null;
+    }
+
+    private Block generate(@NotNull BlockVariation variation) {
+        Block block = blocks[variation.ID];
+        if (block != null || !variations[variation.ID]) return block;
+
+        if (itemSettings == null) itemSettings = builder.sharedItemSettings != null ? builder.sharedItemSettings : ItemSettingsOf(builder);
+
+        try (StartupProfiler.Section ignored = StartupProfiler.start(new ElderlyEvent.GenerateVariation(), identifier, variation)) {
+            block = variation == BlockVariation.BLOCK ? builder.generator().generate(builder) :
+                    builder.generator().generateVariation(builder, block(), variation);
+
+            blocks[variation.ID] = block;
+            items[variation.ID] = new BlockItem(block, itemSettings);
+            if (block instanceof LiteVariation lite) StartupProfiler.savedStates(lite.savedStates());
+        }
+
+        return block;
+    }
+
+    private void generateRecipes() {
+        //shared by all the recipes made from the base block
+        Ingredient base = Ingredient.ofItems(item());
+
+        BlockVariation[] registered = BlockVariation.registered();
+        for (int id = 0; id < blocks.length; id++) {
+            BlockVariation variation = registered[id];
+            if (variation == BlockVariation.BLOCK || item(variation) == null || variation.RECIPE_RESULT <= 0) continue;
+
+            //creation of normal recipe
+            StonecuttingRecipe stonecuttingRecipe = new StonecuttingRecipe(identifier.toIdentifier(variation.SUFFIX),
+                    variation.SUFFIX, base, new ItemStack(item(variation),
+                    variation.RECIPE_RESULT));
+
+            recipes.add(stonecuttingRecipe);
+
+            //creation of additional recipe
+            if (revertRecipesEnabled && variation.RECIPE_RESULT == 1) {
+                StonecuttingRecipe revertRecipe = new StonecuttingRecipe(identifier.toIdentifier("revert" + variation.SUFFIX),
+                        identifier.toString(), Ingredient.ofItems(item(variation)), new ItemStack(item(), 1));
+
+                recipes.add(revertRecipe);
             }
-        });
+        }
     }
 
     /**
-     * Registers all the contents of this class
-     * @return {@code this}, to allow easy builder compatibility
+     * Generates the recipes of this block, and lists its blocks and items in registration order.
+     * Doesn't write to any registry, so it can run on a worker thread once {@link #materialize()} was called.
      */
-    public VariedBlock register() {
-        for (BlockVariation variation : BlockVariation.values()) {
+    @Override
+    public @NotNull List<RegistrationBatch.Entry<?>> prepare() {
+        materialize();
+
+        if (!prepared) {
+            if (recipesEnabled) {
+                try (StartupProfiler.Section ignored = StartupProfiler.start(new ElderlyEvent.GenerateRecipes(), identifier, null)) {
+                    generateRecipes();
+                }
+                StartupProfiler.created(recipes.size());
+            }
+            prepared = true;
+        }
+
+        List<RegistrationBatch.Entry<?>> entries = new ArrayList<>(blocks.length * 2);
+        BlockVariation[] registered = BlockVariation.registered();
+        for (int id = 0; id < blocks.length; id++) {
+            BlockVariation variation = registered[id];
             if (block(variation) == null) continue;
 
             Identifier identifier = this.identifier.toIdentifier(variation.SUFFIX);
 
-            Registry.register(Registry.BLOCK, identifier, block(variation));
-            Registry.register(Registry.ITEM, identifier, item(variation));
+            entries.add(new RegistrationBatch.Entry<>(Registry.BLOCK, identifier, block(variation)));
+            entries.add(new RegistrationBatch.Entry<>(Registry.ITEM, identifier, item(variation)));
         }
 
-        Elderly.RecipeManager.addRecipes(recipes);
+        return entries;
+    }
 
-        return this;
+    @Override
+    public void onRegistered() {
+        BlockVariation[] registered = BlockVariation.registered();
+        for (int id = 0; id < blocks.length; id++)
+            if (blocks[id] != null) VariedBlockIndex.put(this, registered[id]);
+
+        Elderly.RecipeManager.addRecipes(recipes);
     }
 
     /**
@@ -91,7 +177,11 @@ public final class VariedBlock extends BlockHandler<VariedBlock, Block, VariedBl
      * @return the {@link Block} assigned to the variation provided
      */
     public Block block(BlockVariation variation) {
-        return blocks.get(variation);
+        //variations registered after this block was built
+        if (variation.ID >= blocks.length) return null;
+
+        Block block = blocks[variation.ID];
+        return block != null || builder == null ? block : generate(variation);
     }
 
     /**
@@ -106,7 +196,13 @@ public final class VariedBlock extends BlockHandler<VariedBlock, Block, VariedBl
      * @return the {@link BlockItem} for the block {@link #block(BlockVariation)}
      */
     public BlockItem item(BlockVariation variation) {
-        return items.get(variation);
+        if (variation.ID >= items.length) return null;
+
+        BlockItem item = items[variation.ID];
+        if (item != null || builder == null) return item;
+
+        generate(variation);
+        return items[variation.ID];
     }
 
     /**
@@ -143,13 +239,42 @@ public final class VariedBlock extends BlockHandler<VariedBlock, Block, VariedBl
      */
     @Contract("_ -> new")
     public static @NotNull Builder of(@NotNull VariedBlock block) {
-        return of(block.block());
+        return block.builder == null || block.blocks[BlockVariation.BLOCK.ID] != null ? of(block.block()) :
+                of((AbstractBlock.Settings) block.builder);
+    }
+
+    /**
+     * @param builder the builder to copy from
+     * @return a new builder with all the settings and options of this builder
+     */
+    @Contract("_ -> new")
+    public static @NotNull Builder copyOf(@NotNull Builder builder) {
+        Builder copy = new Builder(builder)
+                .type(builder.type())
+                .rarity(builder.rarity())
+                .boundingBox(builder.boundingBox())
+                .equipmentSlot(builder.equipmentSlot())
+                .customDamage(builder.customDamage())
+                .generator(builder.generator())
+                .recipesEnabled(builder.recipesEnabled(), builder.revertRecipesEnabled())
+                .lazy(builder.lazy())
+                .lite(builder.lite());
+
+        copy.variations.putAll(builder.variations);
+        copy.sharedItemSettings = builder.sharedItemSettings;
+        return copy;
     }
 
     public static final class Builder extends BlockHandler.Builder<VariedBlock, Block, Builder> {
-        private final HashMap<BlockVariation, Boolean> variations = new HashMap<>();
+        private final Map<BlockVariation, Boolean> variations = new IdentityHashMap<>();
         private BlockGenerator generator = BlockGenerator.DEFAULT;
         private boolean enableRecipes = false, enableRevertRecipes = false;
+        private boolean lazy = false;
+        private boolean lite = false;
+        /**
+         * Item settings shared with other blocks, set by a {@link VariedBlockPalette}
+         */
+        private FabricItemSettings sharedItemSettings = null;
 
         private Builder(Material material, MapColor color) {
             super(material, color);
@@ -180,12 +305,12 @@ public final class VariedBlock extends BlockHandler<VariedBlock, Block, VariedBl
         }
 
         public boolean isEnabled(BlockVariation variation) {
-            return variations.get(variation);
+            return variations.getOrDefault(variation, false);
         }
 
         @Contract("_ -> new")
         public @NotNull VariedBlock build(ElderionIdentifier identifier) {
-            return new VariedBlock(this, identifier);
+            return StartupProfiler.time(new ElderlyEvent.Build(), identifier, null, () -> new VariedBlock(this, identifier));
         }
 
 
@@ -216,6 +341,46 @@ public final class VariedBlock extends BlockHandler<VariedBlock, Block, VariedBl
             return enableRecipes;
         }
 
+        /**
+         * In lazy mode, variations are generated only when first requested, or when the block is registered.
+         * Until then, the built {@link VariedBlock} keeps this builder, so it must not be changed afterwards.
+         * @param lazy whether to generate variations lazily
+         */
+        @Contract("_ -> this")
+        public Builder lazy(boolean lazy) {
+            this.lazy = lazy;
+            return this;
+        }
+
+        public boolean lazy() {
+            return lazy;
+        }
+
+        /**
+         * In lite mode, the default generator makes walls, fences and fence gates with fewer block states than the
+         * vanilla ones: they can't be waterlogged, walls are never tall and gates aren't lowered between walls.
+         * @param lite whether to generate lite variations
+         * @see LiteVariation
+         */
+        @Contract("_ -> this")
+        public Builder lite(boolean lite) {
+            this.lite = lite;
+            return this;
+        }
+
+        public boolean lite() {
+            return lite;
+        }
+
+        /**
+         * The items of the blocks built by this builder are then made with these settings, instead of their own.
+         */
+        @Contract("_ -> this")
+        Builder sharedItemSettings(FabricItemSettings sharedItemSettings) {
+            this.sharedItemSettings = sharedItemSettings;
+            return this;
+        }
+
         @Override
         protected Builder getBuilderInstance() {
             return this;
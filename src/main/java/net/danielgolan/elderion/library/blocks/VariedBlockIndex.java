@@ -0,0 +1,58 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.Item;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A global index from every registered {@link VariedBlock} {@link Block} and {@link Item} to its family and variation.
+ * <p>
+ * Filled when a {@link VariedBlock} is registered. Lookups don't allocate.
+ */
+public final class VariedBlockIndex {
+    private static final Map<Block, Entry> blocks = new IdentityHashMap<>();
+    private static final Map<Item, Entry> items = new IdentityHashMap<>();
+
+    private VariedBlockIndex() { }
+
+    static void put(@NotNull VariedBlock family, @NotNull BlockVariation variation) {
+        Entry entry = new Entry(family, variation);
+
+        blocks.put(family.block(variation), entry);
+        items.put(family.item(variation), entry);
+    }
+
+    /**
+     * @param block any block
+     * @return the family and variation of this block, or {@code null} if it isn't a registered {@link VariedBlock} block
+     */
+    public static @Nullable Entry get(Block block) {
+        return blocks.get(block);
+    }
+
+    /**
+     * @param item any item
+     * @return the family and variation of this item, or {@code null} if it isn't a registered {@link VariedBlock} item
+     */
+    public static @Nullable Entry get(Item item) {
+        return items.get(item);
+    }
+
+    /**
+     * @param family the {@link VariedBlock} the block belongs to
+     * @param variation the variation of the block in its family
+     */
+    public record Entry(@NotNull VariedBlock family, @NotNull BlockVariation variation) {
+        public Block block() {
+            return family.block(variation);
+        }
+
+        public Item item() {
+            return family.item(variation);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.danielgolan.elderion.library.Author;
+import net.danielgolan.elderion.library.ElderionIdentifier;
+import net.danielgolan.elderion.library.RegistrationBatch;
+import net.fabricmc.fabric.api.item.v1.FabricItemSettings;
+import net.minecraft.block.MapColor;
+import net.minecraft.sound.BlockSoundGroup;
+import net.minecraft.util.DyeColor;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A family of {@link VariedBlock}s built from one base {@link VariedBlock.Builder}, like the same bricks in every dye
+ * color, each with its own name, and optionally its own map color and sounds.
+ * <p>
+ * All the blocks are built in one pass, and share everything they have in common: their item settings, their
+ * {@linkplain BlockShapes#intern(net.minecraft.util.shape.VoxelShape) interned} bounding box, their generator and their
+ * variations. They're built {@linkplain VariedBlock.Builder#lazy(boolean) lazily}, so they're all generated when the
+ * palette is registered, and their recipes are prepared in parallel by a {@link RegistrationBatch}.
+ */
+public final class VariedBlockPalette {
+    private final Map<String, VariedBlock> blocks;
+
+    private VariedBlockPalette(Map<String, VariedBlock> blocks) {
+        this.blocks = Collections.unmodifiableMap(blocks);
+    }
+
+    /**
+     * @param base the builder every block of the palette is copied from. It isn't changed.
+     * @return a new palette builder
+     */
+    @Contract("_ -> new")
+    public static @NotNull Builder builder(@NotNull VariedBlock.Builder base) {
+        return new Builder(base);
+    }
+
+    /**
+     * @return the block of the palette with this name, or {@code null} if there's none
+     */
+    public @Nullable VariedBlock get(String name) {
+        return blocks.get(name);
+    }
+
+    /**
+     * @return all the blocks of the palette, by name, in the order they were added
+     */
+    public @NotNull Map<String, VariedBlock> blocks() {
+        return blocks;
+    }
+
+    /**
+     * Queues all the blocks of the palette in a batch.
+     * @return {@code this}
+     */
+    @Contract("_ -> this")
+    public VariedBlockPalette addTo(@NotNull RegistrationBatch batch) {
+        for (VariedBlock block : blocks.values()) batch.add(block);
+        return this;
+    }
+
+    /**
+     * Registers all the blocks of the palette in a batch of their own.
+     * Call from {@link net.fabricmc.api.ModInitializer#onInitialize()}.
+     * @return {@code this}
+     */
+    @Contract("-> this")
+    public VariedBlockPalette register() {
+        RegistrationBatch batch = new RegistrationBatch();
+        addTo(batch).commit();
+        return this;
+    }
+
+    /**
+     * The parameters of one block of a palette.
+     * @param name the name of the block, unique in its palette
+     * @param color the map color of the block, or {@code null} for the color of the base
+     * @param sounds the sounds of the block, or {@code null} for the sounds of the base
+     */
+    public record Entry(@NotNull String name, @Nullable MapColor color, @Nullable BlockSoundGroup sounds) { }
+
+    public static final class Builder {
+        private final VariedBlock.Builder base;
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        private Builder(VariedBlock.Builder base) {
+            this.base = base;
+        }
+
+        /**
+         * Adds a block to the palette.
+         * @throws IllegalArgumentException if the palette already has a block with this name
+         */
+        @Contract("_ -> this")
+        public Builder add(@NotNull Entry entry) {
+            if (entries.putIfAbsent(entry.name(), entry) != null)
+                throw new IllegalArgumentException("This palette already has a block named " + entry.name());
+            return this;
+        }
+
+        @Contract("_, _, _ -> this")
+        public Builder add(@NotNull String name, @Nullable MapColor color, @Nullable BlockSoundGroup sounds) {
+            return add(new Entry(name, color, sounds));
+        }
+
+        /**
+         * Adds a block for every one of these colors, named after the color.
+         */
+        @Contract("_ -> this")
+        public Builder add(DyeColor @NotNull ... colors) {
+            for (DyeColor color : colors) add(color.getName(), color.getMapColor(), null);
+            return this;
+        }
+
+        /**
+         * Builds every block, with the identifier {@code <name>_<path>}.
+         */
+        @Contract("_, _ -> new")
+        public @NotNull VariedBlockPalette build(Author author, String path) {
+            return build(name -> new ElderionIdentifier(author, name + "_" + path));
+        }
+
+        /**
+         * @param identifiers the identifier of the block of every name
+         */
+        @Contract("_ -> new")
+        public @NotNull VariedBlockPalette build(@NotNull Function<String, ElderionIdentifier> identifiers) {
+            //shared by every block
+            FabricItemSettings itemSettings = BlockHandler.itemSettingsOf(base);
+            VariedBlock.Builder shared = VariedBlock.copyOf(base)
+                    .boundingBox(BlockShapes.intern(base.boundingBox()))
+                    .sharedItemSettings(itemSettings)
+                    .lazy(true);
+
+            Map<String, VariedBlock> blocks = new LinkedHashMap<>();
+            for (Entry entry : entries.values()) {
+                VariedBlock.Builder builder = VariedBlock.copyOf(shared);
+                if (entry.color() != null) builder.mapColor(entry.color());
+                if (entry.sounds() != null) builder.sounds(entry.sounds());
+
+                blocks.put(entry.name(), builder.build(identifiers.apply(entry.name())));
+            }
+
+            return new VariedBlockPalette(blocks);
+        }
+    }
+}
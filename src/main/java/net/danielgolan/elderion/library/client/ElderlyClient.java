@@ -1,13 +1,15 @@
 package net.danielgolan.elderion.library.client;
 
+import net.danielgolan.elderion.library.profiling.StartupProfiler;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 
 @Environment(EnvType.CLIENT)
 public class ElderlyClient implements ClientModInitializer {
     @Override
     public void onInitializeClient() {
-
+        ClientLifecycleEvents.CLIENT_STARTED.register(client -> StartupProfiler.report());
     }
 }
@@ -0,0 +1,171 @@
+package net.danielgolan.elderion.library.fluids;
+
+import it.unimi.dsi.fastutil.longs.*;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.chunk.light.LightingProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Fills or drains many blocks of a fluid at once.
+ * <p>
+ * Blocks are written straight into their chunk sections, one section at a time. Only then, in a single pass, the blocks
+ * around the edited region are updated, the edited blocks on its surface are added, lighting is checked where it may
+ * have changed, and every edited block is marked for the vanilla chunk holder, which sends a single update per
+ * section to the players watching it. Chunks which aren't loaded are skipped, never loaded.
+ */
+final class BulkFluidEditor {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final ServerWorld world;
+    private final BlockState target;
+    private final Predicate<BlockState> replaceable;
+
+    /**
+     * @param target the state to write
+     * @param replaceable which states are replaced by it
+     */
+    BulkFluidEditor(@NotNull ServerWorld world, @NotNull BlockState target, @NotNull Predicate<BlockState> replaceable) {
+        this.world = world;
+        this.target = target;
+        this.replaceable = replaceable;
+    }
+
+    /**
+     * Edits every replaceable block in a box.
+     * @return how many blocks were edited
+     */
+    int edit(@NotNull BlockBox box) {
+        LongList positions = new LongArrayList();
+        for (BlockPos pos : BlockPos.iterate(box.getMinX(), box.getMinY(), box.getMinZ(), box.getMaxX(), box.getMaxY(), box.getMaxZ()))
+            positions.add(pos.asLong());
+
+        return edit(positions);
+    }
+
+    /**
+     * Edits the replaceable blocks connected to a block, up to a limit. Filling never rises above the start, draining does.
+     * @return how many blocks were edited
+     */
+    int flood(@NotNull BlockPos start, int limit, boolean upwards) {
+        LongSet visited = new LongOpenHashSet();
+        LongList positions = new LongArrayList();
+        ArrayDeque<BlockPos> queue = new ArrayDeque<>();
+        queue.add(start.toImmutable());
+        visited.add(start.asLong());
+
+        while (!queue.isEmpty() && positions.size() < limit) {
+            BlockPos pos = queue.poll();
+            if (!isLoaded(pos) || world.isOutOfHeightLimit(pos) || !replaceable.test(world.getBlockState(pos))) continue;
+
+            positions.add(pos.asLong());
+            for (Direction direction : DIRECTIONS) {
+                if (direction == Direction.UP && !upwards && pos.getY() >= start.getY()) continue;
+
+                BlockPos neighbor = pos.offset(direction);
+                if (visited.add(neighbor.asLong())) queue.add(neighbor);
+            }
+        }
+
+        return edit(positions);
+    }
+
+    private int edit(@NotNull LongList positions) {
+        Long2ObjectMap<LongList> sections = new Long2ObjectOpenHashMap<>();
+        for (LongIterator iterator = positions.iterator(); iterator.hasNext(); ) {
+            long pos = iterator.nextLong();
+            sections.computeIfAbsent(ChunkSectionPos.fromBlockPos(pos), key -> new LongArrayList()).add(pos);
+        }
+
+        Long2ObjectMap<BlockState> edited = new Long2ObjectOpenHashMap<>();
+        LightingProvider lighting = world.getChunkManager().getLightingProvider();
+
+        for (Long2ObjectMap.Entry<LongList> entry : sections.long2ObjectEntrySet()) {
+            long sectionPos = entry.getLongKey();
+            int sectionY = ChunkSectionPos.unpackY(sectionPos);
+            if (sectionY < world.getBottomSectionCoord() || sectionY >= world.getTopSectionCoord()) continue;
+
+            WorldChunk chunk = world.getChunkManager().getWorldChunk(ChunkSectionPos.unpackX(sectionPos), ChunkSectionPos.unpackZ(sectionPos));
+            if (chunk == null) continue;
+
+            ChunkSection section = chunk.getSection(world.sectionCoordToIndex(sectionY));
+            boolean empty = section.isEmpty();
+            boolean changed = false;
+
+            for (LongIterator iterator = entry.getValue().iterator(); iterator.hasNext(); ) {
+                long pos = iterator.nextLong();
+                int x = BlockPos.unpackLongX(pos) & 15, y = BlockPos.unpackLongY(pos), z = BlockPos.unpackLongZ(pos) & 15;
+
+                BlockState old = section.getBlockState(x, y & 15, z);
+                if (old == target || !replaceable.test(old) || old.hasBlockEntity()) continue;
+
+                section.setBlockState(x, y & 15, z, target);
+                for (Map.Entry<Heightmap.Type, Heightmap> heightmap : chunk.getHeightmaps())
+                    heightmap.getValue().trackUpdate(x, y, z, target);
+
+                edited.put(pos, old);
+                changed = true;
+            }
+
+            if (!changed) continue;
+            chunk.setNeedsSaving(true);
+            if (empty != section.isEmpty()) lighting.setSectionStatus(ChunkSectionPos.from(sectionPos), section.isEmpty());
+        }
+
+        update(edited, lighting);
+        return edited.size();
+    }
+
+    /**
+     * The single pass over all the edited blocks.
+     * @param edited the previous state of every edited block, by position
+     */
+    private void update(@NotNull Long2ObjectMap<BlockState> edited, LightingProvider lighting) {
+        BlockPos.Mutable pos = new BlockPos.Mutable(), neighbor = new BlockPos.Mutable();
+
+        for (Long2ObjectMap.Entry<BlockState> entry : edited.long2ObjectEntrySet()) {
+            pos.set(entry.getLongKey());
+            BlockState old = entry.getValue();
+
+            world.getChunkManager().markForUpdate(pos);
+            if (old.getLuminance() != target.getLuminance() || old.getOpacity(world, pos) != target.getOpacity(world, pos))
+                lighting.checkBlock(pos);
+
+            boolean surface = false;
+            for (Direction direction : DIRECTIONS) {
+                neighbor.set(pos, direction);
+                //blocks inside the region were all edited the same way, so they have nothing to update
+                if (edited.containsKey(neighbor.asLong())) continue;
+
+                surface = true;
+                if (!isLoaded(neighbor)) continue;
+
+                BlockPos immutable = pos.toImmutable();
+                world.replaceWithStateForNeighborUpdate(direction.getOpposite(), target, neighbor.toImmutable(), immutable, Block.NOTIFY_ALL, 512);
+                world.updateNeighbor(neighbor.toImmutable(), target.getBlock(), immutable);
+            }
+
+            //only the surface can flow, or react to its neighbors
+            if (surface) target.onBlockAdded(world, pos.toImmutable(), old, false);
+        }
+    }
+
+    /**
+     * @return whether the chunk of this position is loaded, without loading it
+     */
+    private boolean isLoaded(@NotNull BlockPos pos) {
+        return world.getChunkManager().isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
+    }
+}
@@ -0,0 +1,334 @@
+package net.danielgolan.elderion.library.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.tick.QueryableTickScheduler;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * The scheduled ticks of library fluids in one world, which {@linkplain FluidHandler.Builder#coalescedTicks(boolean)
+ * coalesce} their ticks.
+ * <p>
+ * All the positions of one fluid in one chunk section which are due on the same tick are kept as a single batch,
+ * and ticked together in section order. Like vanilla, a position which is already queued for a fluid isn't queued again,
+ * no more positions are ticked than the scheduler allows per tick, and batches of chunks which can't be ticked wait
+ * without being polled again. Batches are saved with their chunk as {@link PackedFluidTicks}.
+ */
+public final class CoalescedFluidTicks {
+    private final Long2ObjectMap<List<Section>> sections = new Long2ObjectOpenHashMap<>();
+    /**
+     * The same sections, by the {@link ChunkPos#toLong() position} of their chunk, so a chunk is saved or unloaded
+     * without going through the sections of every other chunk
+     */
+    private final Long2ObjectMap<List<Section>> chunks = new Long2ObjectOpenHashMap<>();
+    private final PriorityQueue<Batch> batches = new PriorityQueue<>(Comparator.comparingLong(Batch::triggerTick));
+    /**
+     * Due batches of chunks which couldn't be ticked when they were polled, by the {@link ChunkPos#toLong() position}
+     * of their chunk, so they're checked once per chunk instead of polled again every tick
+     */
+    private final Long2ObjectMap<List<Batch>> parked = new Long2ObjectOpenHashMap<>();
+    private final BlockPos.Mutable pos = new BlockPos.Mutable();
+    private final @Nullable ServerWorld world;
+
+    /**
+     * @param world the world of these ticks, or {@code null} if unknown, in which case no flow is
+     *              {@linkplain FlowPlanner planned}
+     */
+    public CoalescedFluidTicks(@Nullable ServerWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * @return the coalesced ticks of a world's fluid scheduler, or {@code null} if it has none yet
+     */
+    public static @Nullable CoalescedFluidTicks of(QueryableTickScheduler<Fluid> scheduler) {
+        return scheduler instanceof Holder holder ? holder.elderly$coalescedFluidTicks(false) : null;
+    }
+
+    /**
+     * @param fluid the fluid to tick
+     * @param pos where to tick it
+     * @param triggerTick the world time to tick it at
+     */
+    public void schedule(@NotNull FluidHandler.Delegator fluid, @NotNull BlockPos pos, long triggerTick) {
+        long sectionPos = ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        Section section = section(sectionPos, fluid);
+        int index = index(pos);
+
+        if (section.queued.get(index)) {
+            fluid.source.savedTicks.increment();
+            return;
+        }
+        section.queued.set(index);
+
+        for (Batch batch : section.batches) {
+            if (batch.triggerTick == triggerTick) {
+                batch.positions.set(index);
+                fluid.source.savedTicks.increment();
+                return;
+            }
+        }
+
+        Batch batch = new Batch(section, triggerTick);
+        batch.positions.set(index);
+        section.batches.add(batch);
+        batches.add(batch);
+    }
+
+    /**
+     * @return whether this fluid is queued at this position
+     */
+    public boolean isQueued(@NotNull BlockPos pos, Fluid fluid) {
+        List<Section> sections = this.sections.get(ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+        if (sections == null) return false;
+
+        for (Section section : sections)
+            if (section.fluid == fluid) return section.queued.get(index(pos));
+
+        return false;
+    }
+
+    /**
+     * Ticks the batches which are due, in chunks which can be ticked, up to a number of positions.
+     * A batch which doesn't fit whole ticks its first positions, and the rest on the next tick.
+     * @param time the current world time
+     * @param maxTicks how many positions may be ticked
+     * @param tickable whether a chunk, by its {@link ChunkPos#toLong() position}, can be ticked
+     * @param ticker ticks a fluid at a position
+     */
+    public void tick(long time, int maxTicks, LongPredicate tickable, BiConsumer<BlockPos, Fluid> ticker) {
+        unpark(tickable);
+
+        //polled first, so batches scheduled while ticking wait for the next tick
+        List<Batch> due = new ArrayList<>();
+        Batch partial = null;
+        for (int budget = maxTicks; budget > 0 && !batches.isEmpty() && batches.peek().triggerTick <= time; ) {
+            Batch batch = batches.poll();
+            Section section = batch.section;
+            if (section.removed || !section.batches.contains(batch)) continue;
+
+            long chunk = chunk(section.pos);
+            if (!tickable.test(chunk)) {
+                parked.computeIfAbsent(chunk, key -> new ArrayList<>(1)).add(batch);
+                continue;
+            }
+
+            due.add(batch);
+            budget -= batch.positions.cardinality();
+            if (budget < 0) partial = batch;
+        }
+
+        Map<Batch, FlowPlanner.Task> tasks = plan(due, partial);
+
+        int remaining = maxTicks;
+        for (Batch batch : due) {
+            Section section = batch.section;
+            BitSet positions;
+
+            if (batch != partial) {
+                //unqueued first, so positions can be scheduled again while ticked
+                positions = batch.positions;
+                section.batches.remove(batch);
+                section.queued.andNot(positions);
+                if (section.queued.isEmpty()) remove(section);
+            } else {
+                //the rest stays due
+                int end = 0;
+                for (int n = 0; n < remaining; n++) end = batch.positions.nextSetBit(end) + 1;
+                positions = batch.positions.get(0, end);
+                batch.positions.andNot(positions);
+                section.queued.andNot(positions);
+                batches.add(batch);
+            }
+            remaining -= positions.cardinality();
+
+            FlowPlanner.Task task = tasks.get(batch);
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                BlockPos pos = pos(section.pos, i).toImmutable();
+                if (task == null || !task.apply(world, pos, i)) ticker.accept(pos, section.fluid);
+            }
+        }
+    }
+
+    /**
+     * Queues the parked batches of chunks which can be ticked again.
+     */
+    private void unpark(LongPredicate tickable) {
+        if (parked.isEmpty()) return;
+
+        for (Iterator<Long2ObjectMap.Entry<List<Batch>>> iterator = Long2ObjectMaps.fastIterator(parked); iterator.hasNext(); ) {
+            Long2ObjectMap.Entry<List<Batch>> entry = iterator.next();
+            if (!tickable.test(entry.getLongKey())) continue;
+
+            batches.addAll(entry.getValue());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Starts planning the due batches of fluids which {@linkplain FluidHandler#plannedFlow plan} their flow,
+     * if there are enough of them.
+     * @param partial the batch which is only partly ticked, which isn't planned
+     * @return the planned batches
+     */
+    private @NotNull Map<Batch, FlowPlanner.Task> plan(@NotNull List<Batch> due, @Nullable Batch partial) {
+        if (world == null) return Map.of();
+
+        FlowPlanner planner = null;
+        Map<Batch, FlowPlanner.Task> tasks = new IdentityHashMap<>();
+
+        for (Batch batch : due) {
+            Section section = batch.section;
+            if (batch == partial || !(section.fluid instanceof FluidHandler.Delegator fluid) || !fluid.source.plannedFlow) continue;
+
+            if (planner == null) planner = new FlowPlanner(world);
+            tasks.put(batch, planner.add(fluid, section.pos, batch.positions));
+        }
+
+        if (planner == null || planner.ticks() < FlowPlanner.MIN_TICKS) return Map.of();
+
+        planner.start();
+        return tasks;
+    }
+
+    /**
+     * Visits the ticks of a chunk, which are kept as they are.
+     */
+    public void forEach(@NotNull ChunkPos chunkPos, TickConsumer consumer) {
+        List<Section> sections = chunks.get(chunkPos.toLong());
+        if (sections == null) return;
+
+        for (Section section : sections)
+            for (Batch batch : section.batches)
+                for (int i = batch.positions.nextSetBit(0); i >= 0; i = batch.positions.nextSetBit(i + 1))
+                    consumer.accept(section.fluid, pos(section.pos, i), batch.triggerTick);
+    }
+
+    /**
+     * Forgets the ticks of a chunk.
+     */
+    public void remove(@NotNull ChunkPos chunkPos) {
+        parked.remove(chunkPos.toLong());
+
+        List<Section> sections = chunks.remove(chunkPos.toLong());
+        if (sections == null) return;
+
+        for (Section section : sections) {
+            //batches of removed sections are skipped when polled
+            section.removed = true;
+            this.sections.remove(section.pos);
+        }
+    }
+
+    private @NotNull Section section(long sectionPos, Fluid fluid) {
+        List<Section> sections = this.sections.computeIfAbsent(sectionPos, pos -> new ArrayList<>(1));
+
+        for (Section section : sections)
+            if (section.fluid == fluid) return section;
+
+        Section section = new Section(sectionPos, fluid);
+        sections.add(section);
+        chunks.computeIfAbsent(chunk(sectionPos), pos -> new ArrayList<>(1)).add(section);
+        return section;
+    }
+
+    private void remove(@NotNull Section section) {
+        if (!section.batches.isEmpty()) return;
+
+        List<Section> sections = this.sections.get(section.pos);
+        if (sections == null) return;
+
+        sections.remove(section);
+        if (sections.isEmpty()) this.sections.remove(section.pos);
+
+        List<Section> chunk = chunks.get(chunk(section.pos));
+        if (chunk == null) return;
+
+        chunk.remove(section);
+        if (chunk.isEmpty()) chunks.remove(chunk(section.pos));
+    }
+
+    private static long chunk(long sectionPos) {
+        return ChunkPos.toLong(ChunkSectionPos.unpackX(sectionPos), ChunkSectionPos.unpackZ(sectionPos));
+    }
+
+    /**
+     * @return the index of this position in its section, in {@code y, z, x} order
+     */
+    private static int index(@NotNull BlockPos pos) {
+        return (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | pos.getX() & 15;
+    }
+
+    private BlockPos.@NotNull Mutable pos(long sectionPos, int index) {
+        return pos.set(ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(sectionPos)) + (index & 15),
+                ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(sectionPos)) + (index >> 8 & 15),
+                ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(sectionPos)) + (index >> 4 & 15));
+    }
+
+    @FunctionalInterface
+    public interface TickConsumer {
+        /**
+         * @param pos the position, which may be mutated once this returns
+         */
+        void accept(Fluid fluid, BlockPos pos, long triggerTick);
+    }
+
+    /**
+     * Implemented by the world tick scheduler, which keeps the coalesced ticks of its world.
+     */
+    public interface Holder {
+        /**
+         * @param create whether to create the coalesced ticks if there are none yet
+         */
+        @Contract("true -> !null")
+        CoalescedFluidTicks elderly$coalescedFluidTicks(boolean create);
+
+        /**
+         * Called once the world of the scheduler is created.
+         */
+        void elderly$world(ServerWorld world);
+    }
+
+    /**
+     * The ticks of one fluid in one chunk section.
+     */
+    private static final class Section {
+        private final long pos;
+        private final Fluid fluid;
+        private final BitSet queued = new BitSet(4096);
+        private final List<Batch> batches = new ArrayList<>(2);
+        private boolean removed = false;
+
+        private Section(long pos, Fluid fluid) {
+            this.pos = pos;
+            this.fluid = fluid;
+        }
+    }
+
+    private static final class Batch {
+        private final Section section;
+        private final long triggerTick;
+        private final BitSet positions = new BitSet(4096);
+
+        private Batch(Section section, long triggerTick) {
+            this.section = section;
+            this.triggerTick = triggerTick;
+        }
+
+        long triggerTick() {
+            return triggerTick;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.danielgolan.elderion.library.fluids;
+
+import net.minecraft.world.WorldView;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * A fluid property which only depends on the {@link DimensionType} of the world.
+ * <p>
+ * {@link FluidHandler} resolves such properties once per dimension, and then reads them from a table on every tick.
+ */
+@FunctionalInterface
+public interface DimensionConstant extends ToIntFunction<WorldView> {
+    int applyAsInt(DimensionType dimension);
+
+    @Override
+    default int applyAsInt(@NotNull WorldView world) {
+        return applyAsInt(world.getDimension());
+    }
+
+    /**
+     * @param value the value in all dimensions
+     */
+    @Contract(pure = true)
+    static @NotNull DimensionConstant of(int value) {
+        return dimension -> value;
+    }
+
+    /**
+     * @param ultrawarm the value in {@linkplain DimensionType#ultrawarm() ultrawarm} dimensions
+     * @param other the value in any other dimension
+     */
+    @Contract(pure = true)
+    static @NotNull DimensionConstant of(int ultrawarm, int other) {
+        return dimension -> dimension.ultrawarm() ? ultrawarm : other;
+    }
+}
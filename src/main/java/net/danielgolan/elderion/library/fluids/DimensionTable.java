@@ -0,0 +1,41 @@
+package net.danielgolan.elderion.library.fluids;
+
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The values of a {@link DimensionConstant}, resolved once per {@link DimensionType}.
+ */
+final class DimensionTable {
+    //dimension types are recreated with every server, so old ones are dropped past this size
+    private static final int MAX_SIZE = 16;
+
+    private final DimensionConstant constant;
+    private volatile Entry[] entries = new Entry[0];
+
+    DimensionTable(@NotNull DimensionConstant constant) {
+        this.constant = constant;
+    }
+
+    int get(DimensionType dimension) {
+        for (Entry entry : entries)
+            if (entry.dimension() == dimension) return entry.value();
+
+        return resolve(dimension);
+    }
+
+    private synchronized int resolve(DimensionType dimension) {
+        int value = constant.applyAsInt(dimension);
+        int size = entries.length < MAX_SIZE ? entries.length : 0;
+
+        Entry[] entries = Arrays.copyOf(this.entries, size + 1);
+        entries[size] = new Entry(dimension, value);
+        this.entries = entries;
+
+        return value;
+    }
+
+    private record Entry(DimensionType dimension, int value) { }
+}
@@ -0,0 +1,455 @@
+package net.danielgolan.elderion.library.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.danielgolan.elderion.library.mixin.FlowableFluidInvoker;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.FluidFillable;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FlowableFluid;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plans the scheduled ticks of library fluids, which {@linkplain FluidHandler.Builder#plannedFlow(boolean) plan}
+ * their flow, off the server thread.
+ * <p>
+ * The chunk sections around the planned ticks are copied on the server thread, and every tick is planned against
+ * these copies by a worker: how the fluid updates, whether it flows down and where it spreads. The server thread then
+ * applies the plans one by one, in the order vanilla would tick them. Every block a plan has read is checked against
+ * the world first, and a tick whose plan is stale, or which couldn't be planned, is ticked by vanilla instead.
+ */
+final class FlowPlanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Elderly Library");
+
+    /**
+     * Fewer ticks than this aren't worth the trip to the workers
+     */
+    static final int MIN_TICKS = 64;
+
+    private final ServerWorld world;
+    private final Executor executor;
+    private final Snapshot snapshot;
+    private final List<Task> tasks = new ArrayList<>();
+    private int ticks = 0;
+
+    FlowPlanner(@NotNull ServerWorld world) {
+        this(world, ForkJoinPool.commonPool());
+    }
+
+    FlowPlanner(@NotNull ServerWorld world, Executor executor) {
+        this.world = world;
+        this.executor = executor;
+        snapshot = new Snapshot(world);
+    }
+
+    /**
+     * Copies the chunk sections around these positions, to plan them once {@linkplain #start() started}.
+     * Must be called on the server thread.
+     * @param fluid the scheduled fluid
+     * @param sectionPos the chunk section of the positions
+     * @param positions the positions, by their index in the section
+     */
+    @NotNull Task add(@NotNull FluidHandler.Delegator fluid, long sectionPos, @NotNull BitSet positions) {
+        int flowSpeed = fluid.getFlowSpeed(world), levelDecrease = fluid.getLevelDecreasePerBlock(world);
+        int x = ChunkSectionPos.unpackX(sectionPos), y = ChunkSectionPos.unpackY(sectionPos), z = ChunkSectionPos.unpackZ(sectionPos);
+        int reach = ChunkSectionPos.getSectionCoord(flowSpeed + 2 + 15);
+
+        for (int sx = x - reach; sx <= x + reach; sx++)
+            for (int sz = z - reach; sz <= z + reach; sz++)
+                for (int sy = y - 1; sy <= y + 1; sy++)
+                    snapshot.copy(sx, sy, sz);
+
+        Task task = new Task(fluid, sectionPos, positions.stream().toArray(), flowSpeed, levelDecrease);
+        tasks.add(task);
+        ticks += task.indices.length;
+        return task;
+    }
+
+    /**
+     * @return how many ticks were added
+     */
+    int ticks() {
+        return ticks;
+    }
+
+    /**
+     * Plans all the added ticks on the workers.
+     */
+    void start() {
+        for (Task task : tasks)
+            task.plans = CompletableFuture.supplyAsync(() -> task.plan(snapshot), executor);
+    }
+
+    /**
+     * The planned ticks of one batch.
+     */
+    static final class Task {
+        private final FluidHandler.Delegator fluid;
+        private final long sectionPos;
+        private final int[] indices;
+        private final int flowSpeed, levelDecrease;
+        private CompletableFuture<Plan[]> plans;
+        /**
+         * Where the plans check their reads against the world, on the server thread
+         */
+        private final BlockPos.Mutable read = new BlockPos.Mutable();
+
+        private Task(FluidHandler.Delegator fluid, long sectionPos, int[] indices, int flowSpeed, int levelDecrease) {
+            this.fluid = fluid;
+            this.sectionPos = sectionPos;
+            this.indices = indices;
+            this.flowSpeed = flowSpeed;
+            this.levelDecrease = levelDecrease;
+        }
+
+        /**
+         * Waits for the plans, and applies the plan of this position through the same
+         * {@linkplain FluidHandler.Delegator#gate gate} as any other tick. Must be called on the server thread.
+         * @param index the index of the position in its section
+         * @return whether the tick was handled; if not, it has to be ticked by vanilla
+         */
+        boolean apply(ServerWorld world, BlockPos pos, int index) {
+            int i = Arrays.binarySearch(indices, index);
+            if (i < 0) return false;
+
+            Plan[] plans;
+            try {
+                plans = this.plans.join();
+            } catch (CompletionException e) {
+                LOGGER.error("Couldn't plan the flow of {}", fluid.source.identifier().get(), e.getCause());
+                return false;
+            }
+
+            Plan plan = plans[i];
+            if (plan == null) return false;
+            //vanilla only ticks the fluid which was scheduled
+            if (!world.getFluidState(pos).isOf(fluid)) return true;
+
+            fluid.gate(world, pos, () -> {
+                if (!plan.apply(world, pos, read)) fluid.vanillaTick(world, pos);
+            });
+            return true;
+        }
+
+        private Plan @NotNull [] plan(Snapshot snapshot) {
+            View view = new View(snapshot);
+            Plan[] plans = new Plan[indices.length];
+            BlockPos.Mutable pos = new BlockPos.Mutable();
+
+            for (int i = 0; i < indices.length; i++) {
+                int index = indices[i];
+                pos.set(ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(sectionPos)) + (index & 15),
+                        ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(sectionPos)) + (index >> 8 & 15),
+                        ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(sectionPos)) + (index >> 4 & 15));
+
+                try {
+                    plans[i] = plan(view.begin(new Plan(fluid)), pos.toImmutable());
+                } catch (Unplannable e) {
+                    plans[i] = null;
+                }
+            }
+
+            return plans;
+        }
+
+        /**
+         * Same as {@code FlowableFluid.onScheduledTick(World, BlockPos, FluidState)}, against the snapshot.
+         */
+        private @NotNull Plan plan(@NotNull View view, BlockPos pos) {
+            FlowableFluidInvoker invoker = (FlowableFluidInvoker) fluid;
+            Plan plan = view.plan;
+
+            BlockState blockState = view.getBlockState(pos);
+            FluidState state = plan.state = blockState.getFluidState();
+            //vanilla only ticks the fluid which was scheduled
+            if (state.getFluid() != fluid) return plan;
+
+            if (!state.isStill()) {
+                FluidState updated = FlowEngine.getUpdatedState(fluid, view, pos, blockState, levelDecrease);
+
+                if (updated.isEmpty() || !updated.equals(state)) {
+                    plan.update = state = updated;
+                    view.write(pos, updated.isEmpty() ? Blocks.AIR.getDefaultState() : updated.getBlockState());
+                }
+            }
+            if (state.isEmpty()) return plan;
+
+            blockState = view.getBlockState(pos);
+            BlockPos down = pos.down();
+            BlockState downState = view.getBlockState(down);
+            FluidState downUpdated = FlowEngine.getUpdatedState(fluid, view, down, downState, levelDecrease);
+
+            if (invoker.elderly$canFlow(view, pos, blockState, Direction.DOWN, down, downState, downState.getFluidState(), downUpdated.getFluid())) {
+                plan.down = downUpdated;
+                if (downState.getBlock() instanceof FluidFillable) view.unknown(down);
+                else view.write(down, downUpdated.getBlockState());
+
+                if (sources(view, pos, fluid) >= 3) planSides(view, pos, state, blockState);
+            } else if (state.isStill() || !invoker.elderly$canFlowDownTo(view, downUpdated.getFluid(), pos, blockState, down, downState))
+                planSides(view, pos, state, blockState);
+
+            return plan;
+        }
+
+        private void planSides(@NotNull View view, BlockPos pos, @NotNull FluidState state, BlockState blockState) {
+            int level = state.get(FlowableFluid.FALLING) ? 7 : state.getLevel() - levelDecrease;
+            if (level > 0) view.plan.spread = FlowEngine.getSpread(fluid, view, pos, blockState, flowSpeed, levelDecrease);
+        }
+
+        /**
+         * Same as {@code FlowableFluid.countNeighboringSources(WorldView, BlockPos)}.
+         */
+        private static int sources(@NotNull BlockView world, @NotNull BlockPos pos, FluidHandler.Delegator fluid) {
+            int sources = 0;
+            for (Direction direction : Direction.Type.HORIZONTAL) {
+                FluidState state = world.getFluidState(pos.offset(direction));
+                if (state.getFluid().matchesType(fluid) && state.isStill()) sources++;
+            }
+            return sources;
+        }
+    }
+
+    /**
+     * The planned tick of one position.
+     */
+    private static final class Plan {
+        private final FluidHandler.Delegator fluid;
+        /**
+         * The first state of every block read from the snapshot, by position
+         */
+        private final Long2ObjectMap<BlockState> reads = new Long2ObjectOpenHashMap<>();
+        /**
+         * The state of every block written by this plan, by position
+         */
+        private final Long2ObjectMap<BlockState> writes = new Long2ObjectOpenHashMap<>();
+
+        private FluidState state;
+        private @Nullable FluidState update = null, down = null;
+        private @Nullable Map<Direction, FluidState> spread = null;
+
+        private Plan(FluidHandler.Delegator fluid) {
+            this.fluid = fluid;
+        }
+
+        /**
+         * @param read a position to check the reads of this plan with
+         */
+        private boolean apply(@NotNull ServerWorld world, @NotNull BlockPos pos, BlockPos.@NotNull Mutable read) {
+            if (!matches(world, pos, 0, read)) return false;
+            FlowableFluidInvoker invoker = (FlowableFluidInvoker) fluid;
+            if (state.getFluid() != fluid) return true;
+
+            FluidState state = this.state;
+            if (update != null) {
+                if (update.isEmpty())
+                    world.setBlockState(pos, Blocks.AIR.getDefaultState(), Block.NOTIFY_ALL);
+                else {
+                    BlockState blockState = update.getBlockState();
+                    int delay = fluid.nextTickDelay(world, pos, state, update);
+
+                    world.setBlockState(pos, blockState, Block.NOTIFY_LISTENERS);
+                    world.createAndScheduleFluidTick(pos, update.getFluid(), delay);
+                    world.updateNeighborsAlways(pos, blockState.getBlock());
+                }
+                state = update;
+                if (state.isEmpty()) return true;
+
+                //the updated neighbors may have changed more around this position
+                if (!matches(world, pos, 1, read)) {
+                    fluid.tryFlowAt(world, pos, state);
+                    return true;
+                }
+            }
+
+            BlockState blockState = world.getBlockState(pos);
+            if (down != null) {
+                BlockPos target = pos.down();
+                BlockState targetState = world.getBlockState(target);
+
+                //the world moved on since the plan, so vanilla decides the whole flow
+                if (!invoker.elderly$canFlow(world, pos, blockState, Direction.DOWN, target, targetState, targetState.getFluidState(), down.getFluid())) {
+                    fluid.tryFlowAt(world, pos, state);
+                    return true;
+                }
+                fluid.flowInto(world, target, targetState, Direction.DOWN, down);
+
+                //flowing down may have changed the sources around, which vanilla counts only now
+                if (!matches(world, pos, 2, read)) {
+                    if (Task.sources(world, pos, fluid) >= 3) invoker.elderly$flowToSides(world, pos, state, world.getBlockState(pos));
+                    return true;
+                }
+            }
+            if (spread == null) return true;
+
+            for (Map.Entry<Direction, FluidState> entry : spread.entrySet()) {
+                Direction direction = entry.getKey();
+                BlockPos target = pos.offset(direction);
+                BlockState targetState = world.getBlockState(target);
+
+                if (invoker.elderly$canFlow(world, pos, blockState, direction, target, targetState, targetState.getFluidState(), entry.getValue().getFluid()))
+                    fluid.flowInto(world, target, targetState, direction, entry.getValue());
+            }
+
+            return true;
+        }
+
+        /**
+         * @param pos the ticked position
+         * @param stage 0 before this plan is applied, 1 once the ticked position is updated,
+         *              and 2 once the fluid flowed down too
+         * @return whether the world matches what this plan has read, and written so far
+         */
+        private boolean matches(@NotNull ServerWorld world, @NotNull BlockPos pos, int stage, BlockPos.@NotNull Mutable read) {
+            long self = pos.asLong(), below = BlockPos.asLong(pos.getX(), pos.getY() - 1, pos.getZ());
+
+            for (Long2ObjectMap.Entry<BlockState> entry : reads.long2ObjectEntrySet()) {
+                long key = entry.getLongKey();
+                BlockState expected = entry.getValue();
+
+                if (stage >= 1 && key == self || stage >= 2 && key == below) {
+                    //an unknown write never matches, so its plan falls back to vanilla
+                    BlockState written = writes.get(key);
+                    if (written != null) expected = written;
+                    else if (key == below && down != null) return false;
+                }
+
+                if (world.getBlockState(read.set(key)) != expected) return false;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * The snapshot, as seen by a plan: blocks written by the plan, and every read recorded.
+     */
+    private static final class View implements BlockView {
+        private final Snapshot snapshot;
+        private final LongSet unknown = new LongOpenHashSet();
+        private Plan plan;
+
+        private View(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @NotNull View begin(Plan plan) {
+            this.plan = plan;
+            unknown.clear();
+            return this;
+        }
+
+        void write(@NotNull BlockPos pos, BlockState state) {
+            plan.writes.put(pos.asLong(), state);
+        }
+
+        /**
+         * Marks a position whose state after the plan's write can't be known off the server thread.
+         */
+        void unknown(@NotNull BlockPos pos) {
+            unknown.add(pos.asLong());
+        }
+
+        @Override
+        public BlockState getBlockState(@NotNull BlockPos pos) {
+            long key = pos.asLong();
+            if (unknown.contains(key)) throw Unplannable.INSTANCE;
+
+            BlockState written = plan.writes.get(key);
+            if (written != null) return written;
+
+            BlockState state = snapshot.getBlockState(pos);
+            plan.reads.putIfAbsent(key, state);
+            return state;
+        }
+
+        @Override
+        public FluidState getFluidState(BlockPos pos) {
+            return getBlockState(pos).getFluidState();
+        }
+
+        @Override
+        public @Nullable BlockEntity getBlockEntity(BlockPos pos) {
+            return null;
+        }
+
+        @Override
+        public int getHeight() {
+            return snapshot.height;
+        }
+
+        @Override
+        public int getBottomY() {
+            return snapshot.bottomY;
+        }
+    }
+
+    /**
+     * Copies of the block states of chunk sections, by section position.
+     */
+    private static final class Snapshot {
+        private final ServerWorld world;
+        private final Long2ObjectMap<PalettedContainer<BlockState>> sections = new Long2ObjectOpenHashMap<>();
+        private final int bottomY, height;
+
+        private Snapshot(@NotNull ServerWorld world) {
+            this.world = world;
+            bottomY = world.getBottomY();
+            height = world.getHeight();
+        }
+
+        /**
+         * Copies a section, unless it's already copied, outside the world, or in an unloaded chunk.
+         */
+        void copy(int x, int y, int z) {
+            if (y < world.getBottomSectionCoord() || y >= world.getTopSectionCoord()) return;
+
+            long key = ChunkSectionPos.asLong(x, y, z);
+            if (sections.containsKey(key)) return;
+
+            //never loads chunks
+            WorldChunk chunk = world.getChunkManager().getWorldChunk(x, z);
+            if (chunk != null) sections.put(key, chunk.getSection(world.sectionCoordToIndex(y)).getBlockStateContainer().copy());
+        }
+
+        BlockState getBlockState(@NotNull BlockPos pos) {
+            if (pos.getY() < bottomY || pos.getY() >= bottomY + height) return Blocks.VOID_AIR.getDefaultState();
+
+            PalettedContainer<BlockState> section = sections.get(ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+            if (section == null) throw Unplannable.INSTANCE;
+
+            return section.get(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+        }
+    }
+
+    /**
+     * Thrown when a plan reads a block it can't know, so vanilla ticks it instead.
+     */
+    private static final class Unplannable extends RuntimeException {
+        private static final Unplannable INSTANCE = new Unplannable();
+
+        private Unplannable() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package net.danielgolan.elderion.library.fluids;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.danielgolan.elderion.library.Author;
 import net.danielgolan.elderion.library.ElderionIdentifier;
+import net.danielgolan.elderion.library.RegistrationBatch;
+import net.danielgolan.elderion.library.profiling.ElderlyEvent;
+import net.danielgolan.elderion.library.profiling.StartupProfiler;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidConstants;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.fluid.base.FullItemFluidStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
 import net.fabricmc.fabric.api.object.builder.v1.block.FabricBlockSettings;
+import net.minecraft.block.AbstractBlock;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -16,26 +27,38 @@ import net.minecraft.item.BucketItem;
 import net.minecraft.item.Item;
 import net.minecraft.item.Items;
 import net.minecraft.particle.ParticleType;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvent;
+import net.minecraft.state.StateManager;
 import net.minecraft.state.property.Properties;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
 import net.minecraft.world.WorldAccess;
 import net.minecraft.world.WorldView;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.ToIntFunction;
 
-public class FluidHandler extends FlowableFluid {
-    public static final ToIntFunction<WorldView> WATER_FLOW_SPEED = world -> 4;
-    public static final ToIntFunction<WorldView> LAVA_FLOW_SPEED = world -> world.getDimension().ultrawarm() ? 4 : 2;
-    public static final ToIntFunction<WorldView> WATER_LEVEL_DECREASE = world -> 1;
-    public static final ToIntFunction<WorldView> LAVA_LEVEL_DECREASE = world -> world.getDimension().ultrawarm() ? 1 : 2;
-    private static final ToIntFunction<WorldView> WATER_TICK_RATE = world -> 5;
-    private static final ToIntFunction<WorldView> LAVA_TICK_RATE = world -> world.getDimension().ultrawarm() ? 10 : 30;
+public class FluidHandler extends FlowableFluid implements RegistrationBatch.Registrable {
+    public static final ToIntFunction<WorldView> WATER_FLOW_SPEED = DimensionConstant.of(4);
+    public static final ToIntFunction<WorldView> LAVA_FLOW_SPEED = DimensionConstant.of(4, 2);
+    public static final ToIntFunction<WorldView> WATER_LEVEL_DECREASE = DimensionConstant.of(1);
+    public static final ToIntFunction<WorldView> LAVA_LEVEL_DECREASE = DimensionConstant.of(1, 2);
+    private static final ToIntFunction<WorldView> WATER_TICK_RATE = DimensionConstant.of(5);
+    private static final ToIntFunction<WorldView> LAVA_TICK_RATE = DimensionConstant.of(10, 30);
+    private static final Direction[] DIRECTIONS = Direction.values();
 
     /**
      * When breaking a block inside this fluid, drops will not spawn if this equals to true.
@@ -58,6 +81,8 @@ public class FluidHandler extends FlowableFluid {
      * <p>
      * {@linkplain #WATER_FLOW_SPEED Water travels at a speed of 4};
      * {@linkplain #LAVA_FLOW_SPEED Lava travels at a speed of 2, or 4 in hot dimensions}.
+     * <p>
+     * This and the other per-world properties are resolved once per dimension if they're {@link DimensionConstant}s.
      */
     public final ToIntFunction<WorldView> flowSpeed;
     /**
@@ -79,6 +104,68 @@ public class FluidHandler extends FlowableFluid {
      * @see Block#getBlastResistance()
      */
     public final float blastResistance;
+    /**
+     * Does this fluid spread with the library's flow engine? It spreads just like vanilla fluids, but faster.
+     */
+    public final boolean optimizedFlow;
+    /**
+     * Are the scheduled ticks of this fluid coalesced per chunk section?
+     * @see CoalescedFluidTicks
+     */
+    public final boolean coalescedTicks;
+    /**
+     * Are positions of this fluid, which have settled, skipped until one of their neighbors changes?
+     * @see SettledFluids
+     */
+    public final boolean tracksSettled;
+    /**
+     * Is the flow of this fluid planned off the server thread? Its ticks are always {@linkplain #coalescedTicks coalesced}.
+     * @see FlowPlanner
+     */
+    public final boolean plannedFlow;
+    /**
+     * Is the {@linkplain #tickRate tick rate} of this fluid stretched while the server is behind? In every world of
+     * that server, since they share its tick time.
+     * @see TickRatePolicy
+     */
+    public final boolean adaptiveTickRate;
+    /**
+     * Does this fluid wait for unloaded chunks instead of loading them when it flows?
+     * @see PendingFlows
+     */
+    public final boolean boundarySafe;
+    /**
+     * How much of the {@linkplain #adaptiveTickRate adaptive} stretch this fluid is spared, from 0 to 1.
+     */
+    public final float tickPriority;
+    /**
+     * What happens when this fluid meets other fluids, by the other fluid.
+     * @see FluidInteraction
+     */
+    public final Map<Fluid, FluidInteraction> interactions;
+
+    /**
+     * The settings of the block of this fluid, or {@code null} if they're a copy of the settings of water
+     */
+    private final AbstractBlock.Settings blockSettings;
+    /**
+     * The variant of this fluid, for the Fabric Transfer API, interned on first use
+     */
+    private volatile FluidVariant variant = null;
+
+    /**
+     * How many scheduled ticks were saved by {@linkplain #coalescedTicks coalescing}.
+     */
+    final LongAdder savedTicks = new LongAdder();
+
+    /**
+     * Tables of the properties which are {@link DimensionConstant}s, {@code null} otherwise
+     */
+    private final DimensionTable flowSpeedTable, levelDecreasePerBlockTable, tickRateTable;
+    /**
+     * The {@linkplain #interactions interactions}, looked up by identity
+     */
+    private final Reference2ObjectMap<Fluid, FluidInteraction> interactionTable;
 
     private final ElderionIdentifier identifier;
 
@@ -86,6 +173,27 @@ public class FluidHandler extends FlowableFluid {
     private final Item bucketItem;
     private final Block block;
 
+    /**
+     * Still states, indexed by whether they're falling
+     */
+    private final FluidState[] stillStates = new FluidState[2];
+    /**
+     * Flowing states, indexed by {@code (falling ? 8 : 0) + level - 1}
+     */
+    private final FluidState[] flowingStates = new FluidState[16];
+    /**
+     * The block state of every {@linkplain #flowingStates flowing state}
+     */
+    private final BlockState[] flowingBlockStates = new BlockState[16];
+    /**
+     * Block states, indexed by {@link Properties#LEVEL_15}
+     */
+    private final BlockState[] blockStates;
+    /**
+     * The fluid state of every {@linkplain #blockStates block state}
+     */
+    private final FluidState[] blockFluidStates;
+
     private FluidHandler(@NotNull Builder builder, ElderionIdentifier identifier) {
         this.identifier = identifier;
 
@@ -97,6 +205,21 @@ public class FluidHandler extends FlowableFluid {
         levelDecreasePerBlock = builder.levelDecreasePerBlock();
         tickRate = builder.tickRate();
         blastResistance = builder.blastResistance();
+        optimizedFlow = builder.optimizedFlow();
+        plannedFlow = builder.plannedFlow();
+        //only coalesced ticks are planned
+        coalescedTicks = builder.coalescedTicks() || plannedFlow;
+        tracksSettled = builder.tracksSettled();
+        adaptiveTickRate = builder.adaptiveTickRate();
+        boundarySafe = builder.boundarySafe();
+        tickPriority = builder.tickPriority();
+        interactions = Map.copyOf(builder.interactions());
+        blockSettings = builder.blockSettings();
+
+        flowSpeedTable = tableOf(flowSpeed);
+        levelDecreasePerBlockTable = tableOf(levelDecreasePerBlock);
+        tickRateTable = tableOf(tickRate);
+        interactionTable = new Reference2ObjectOpenHashMap<>(interactions);
 
         still = new Delegator(this) {
             @Override
@@ -110,13 +233,16 @@ public class FluidHandler extends FlowableFluid {
             }
         };
 
-        bucketItem = new BucketItem(still, new Item.Settings().maxCount(1).recipeRemainder(Items.BUCKET));
-        block = new FluidBlock(still, FabricBlockSettings.copy(Blocks.WATER)){ };
-
         flowing = new Delegator(this) {
+            @Override
+            protected void appendProperties(StateManager.Builder<Fluid, FluidState> builder) {
+                super.appendProperties(builder);
+                builder.add(LEVEL);
+            }
+
             @Override
             public int getLevel(FluidState state) {
-                return state.getLevel();
+                return state.get(LEVEL);
             }
 
             @Override
@@ -124,6 +250,51 @@ public class FluidHandler extends FlowableFluid {
                 return false;
             }
         };
+
+        //fluid states are needed by the FluidBlock constructor
+        for (int falling = 0; falling < 2; falling++) {
+            stillStates[falling] = still.getDefaultState().with(FALLING, falling == 1);
+
+            for (int level = 1; level <= 8; level++)
+                flowingStates[falling * 8 + level - 1] = flowing.getDefaultState().with(LEVEL, level).with(FALLING, falling == 1);
+        }
+
+        bucketItem = new BucketItem(still, new Item.Settings().maxCount(1).recipeRemainder(Items.BUCKET));
+        block = new FluidBlock(still, blockSettings != null ? blockSettings : FabricBlockSettings.copy(Blocks.WATER)) {
+            @Override
+            public FluidState getFluidState(BlockState state) {
+                FluidState fluidState = toFluidState(state);
+                return fluidState != null ? fluidState : super.getFluidState(state);
+            }
+
+            @Override
+            public void onStateReplaced(BlockState state, World world, BlockPos pos, BlockState newState, boolean moved) {
+                //otherwise it's only forgotten when it ticks again, which it won't without this fluid
+                if (tracksSettled && !newState.isOf(this) && world instanceof ServerWorld serverWorld)
+                    SettledFluids.of(serverWorld).remove(pos);
+                super.onStateReplaced(state, world, pos, newState, moved);
+            }
+
+            @Override
+            public void onBlockAdded(BlockState state, World world, BlockPos pos, BlockState oldState, boolean notify) {
+                if (!react(world, pos)) super.onBlockAdded(state, world, pos, oldState, notify);
+            }
+
+            @Override
+            public void neighborUpdate(BlockState state, World world, BlockPos pos, Block sourceBlock, BlockPos sourcePos, boolean notify) {
+                if (!react(world, pos)) super.neighborUpdate(state, world, pos, sourceBlock, sourcePos, notify);
+            }
+        };
+
+        blockStates = new BlockState[16];
+        blockFluidStates = new FluidState[16];
+        for (int level = 0; level < 16; level++) {
+            blockStates[level] = block.getDefaultState().with(Properties.LEVEL_15, level);
+            blockFluidStates[level] = level == 0 ? stillStates[0] : level < 8 ? getFlowing(8 - level, false) : getFlowing(8, true);
+        }
+
+        for (int i = 0; i < flowingStates.length; i++)
+            flowingBlockStates[i] = block.getDefaultState().with(Properties.LEVEL_15, FlowableFluid.getBlockStateLevel(flowingStates[i]));
     }
 
     /**
@@ -131,13 +302,76 @@ public class FluidHandler extends FlowableFluid {
      * @return {@link FluidHandler this}
      */
     public FluidHandler register() {
-        Registry.register(Registry.FLUID, identifier.toIdentifier(), still);
-        Registry.register(Registry.FLUID, identifier.toIdentifier("flows"), flowing);
-        Registry.register(Registry.ITEM, identifier.toIdentifier("bucket"), bucketItem);
-        Registry.register(Registry.BLOCK, identifier.toIdentifier(), block);
+        try (StartupProfiler.Section ignored = StartupProfiler.start(new ElderlyEvent.Register(), identifier, null)) {
+            List<RegistrationBatch.Entry<?>> entries = prepare();
+            entries.forEach(RegistrationBatch.Entry::register);
+            StartupProfiler.created(entries.size());
+        }
+
+        onRegistered();
         return this;
     }
 
+    @Override
+    public ElderionIdentifier identifier() {
+        return identifier;
+    }
+
+    /**
+     * Exposes the bucket and the block of this fluid to the Fabric Transfer API. Empty buckets are already
+     * filled by Fabric with any fluid which has a bucket.
+     */
+    @Override
+    public void onRegistered() {
+        FluidStorage.ITEM.registerForItems((stack, context) ->
+                new FullItemFluidStorage(context, Items.BUCKET, variant(), FluidConstants.BUCKET), bucketItem);
+        FluidStorage.SIDED.registerForBlocks((world, pos, state, blockEntity, direction) ->
+                SourceBlockStorage.find(this, world, pos), block);
+    }
+
+    /**
+     * @return the variant of this fluid, for the Fabric Transfer API. Interned once, so it's never looked up again.
+     */
+    public FluidVariant variant() {
+        FluidVariant variant = this.variant;
+        //racing threads get the same variant, which Fabric caches in the fluid
+        if (variant == null) this.variant = variant = FluidVariant.of(still);
+        return variant;
+    }
+
+    /**
+     * @return the block of this fluid at this position, as a storage of one bucket
+     * @see SourceBlockStorage
+     */
+    public Storage<FluidVariant> storage(World world, BlockPos pos) {
+        return SourceBlockStorage.find(this, world, pos);
+    }
+
+    /**
+     * @return how many scheduled ticks of this fluid were saved by {@linkplain #coalescedTicks coalescing} them,
+     * in all worlds
+     */
+    public long savedTicks() {
+        return savedTicks.sum();
+    }
+
+    /**
+     * @param server the server, or {@code null} for a client
+     * @return the current scale of the tick rate of this fluid on this server
+     * @see #adaptiveTickRate
+     */
+    public float tickRateScale(@Nullable MinecraftServer server) {
+        return adaptiveTickRate ? TickRatePolicy.scale(server, tickPriority) : 1;
+    }
+
+    @Override
+    public @NotNull List<RegistrationBatch.Entry<?>> prepare() {
+        return List.of(new RegistrationBatch.Entry<>(Registry.FLUID, identifier.toIdentifier(), still),
+                new RegistrationBatch.Entry<>(Registry.FLUID, identifier.toIdentifier("flows"), flowing),
+                new RegistrationBatch.Entry<>(Registry.ITEM, identifier.toIdentifier("bucket"), bucketItem),
+                new RegistrationBatch.Entry<>(Registry.BLOCK, identifier.toIdentifier(), block));
+    }
+
     public Fluid getStill() {
         return still;
     }
@@ -148,9 +382,80 @@ public class FluidHandler extends FlowableFluid {
         return bucketItem;
     }
 
+    @Override
+    public FluidState getStill(boolean falling) {
+        return stillStates[falling ? 1 : 0];
+    }
+
+    @Override
+    public FluidState getFlowing(int level, boolean falling) {
+        return level >= 1 && level <= 8 ? flowingStates[(falling ? 8 : 0) + level - 1] : super.getFlowing(level, falling);
+    }
+
     protected BlockState toBlockState(FluidState state) {
+        if (state.getFluid() == still) return blockStates[0];
+        if (state.getFluid() == flowing) return flowingBlockStates[(state.get(FALLING) ? 8 : 0) + state.get(LEVEL) - 1];
+
         return block.getDefaultState().with(Properties.LEVEL_15, FlowableFluid.getBlockStateLevel(state));
     }
+
+    /**
+     * @param state a state of this fluid's block
+     * @return the fluid state of this block state, or {@code null} if it isn't a state of this fluid's block
+     */
+    public FluidState toFluidState(BlockState state) {
+        //blockFluidStates is null while the block is constructed
+        if (blockFluidStates == null || !state.isOf(block)) return null;
+
+        return blockFluidStates[state.get(Properties.LEVEL_15)];
+    }
+
+    /**
+     * Fills every empty block in a box with sources of this fluid, at once.
+     * @return how many blocks were filled
+     * @see BulkFluidEditor
+     */
+    public int fill(ServerWorld world, BlockBox box) {
+        return new BulkFluidEditor(world, blockStates[0], this::canFill).edit(box);
+    }
+
+    /**
+     * Fills the empty blocks connected to a block with sources of this fluid, at once, never above it.
+     * @param limit the most blocks to fill
+     * @return how many blocks were filled
+     * @see BulkFluidEditor
+     */
+    public int fill(ServerWorld world, BlockPos start, int limit) {
+        return new BulkFluidEditor(world, blockStates[0], this::canFill).flood(start, limit, false);
+    }
+
+    /**
+     * Drains every block of this fluid in a box, at once.
+     * @return how many blocks were drained
+     * @see BulkFluidEditor
+     */
+    public int drain(ServerWorld world, BlockBox box) {
+        return new BulkFluidEditor(world, Blocks.AIR.getDefaultState(), this::canDrain).edit(box);
+    }
+
+    /**
+     * Drains the blocks of this fluid connected to a block, at once.
+     * @param limit the most blocks to drain
+     * @return how many blocks were drained
+     * @see BulkFluidEditor
+     */
+    public int drain(ServerWorld world, BlockPos start, int limit) {
+        return new BulkFluidEditor(world, Blocks.AIR.getDefaultState(), this::canDrain).flood(start, limit, true);
+    }
+
+    private boolean canFill(@NotNull BlockState state) {
+        return state.isAir() || state.isOf(block) && state != blockStates[0];
+    }
+
+    private boolean canDrain(@NotNull BlockState state) {
+        return state.isOf(block);
+    }
+
     public boolean matchesType(Fluid fluid) {
         return fluid == getStill() || fluid == getFlowing();
     }
@@ -163,16 +468,63 @@ public class FluidHandler extends FlowableFluid {
         if (!corrodes) Block.dropStacks(state, world, pos, entity);
     }
     protected boolean canBeReplacedWith(FluidState state, BlockView world, BlockPos pos, Fluid fluid, Direction direction) {
+        FluidInteraction interaction = interactionTable.get(fluid);
+        return interaction != null && interaction.replaceable();
+    }
+
+    /**
+     * @return what happens when this fluid meets another fluid, or {@code null} if nothing was declared
+     * @see #interactions
+     */
+    public @Nullable FluidInteraction interaction(Fluid fluid) {
+        return interactionTable.get(fluid);
+    }
+
+    /**
+     * Turns a block of this fluid into the result of its interaction with a fluid beside or above it, if any.
+     * @return whether it reacted
+     */
+    private boolean react(World world, BlockPos pos) {
+        if (interactionTable.isEmpty()) return false;
+
+        boolean source = world.getFluidState(pos).isStill();
+        for (Direction direction : DIRECTIONS) {
+            if (direction == Direction.DOWN) continue;
+
+            FluidInteraction interaction = interactionTable.get(world.getFluidState(pos.offset(direction)).getFluid());
+            if (interaction != null && react(world, pos, interaction, source)) return true;
+        }
+
         return false;
     }
+
+    /**
+     * @param source is the block of this fluid which meets the other fluid a source? That's the block which reacts, or
+     *               the block which flows into the other fluid.
+     * @return whether it reacted
+     */
+    private static boolean react(@NotNull WorldAccess world, BlockPos pos, @NotNull FluidInteraction interaction, boolean source) {
+        BlockState result = interaction.result(source);
+        if (result == null) return false;
+
+        world.setBlockState(pos, result, Block.NOTIFY_ALL);
+        if (interaction.sound() != null) world.playSound(null, pos, interaction.sound(), SoundCategory.BLOCKS, 1, 1);
+        return true;
+    }
     protected int getFlowSpeed(WorldView world) {
-        return flowSpeed.applyAsInt(world);
+        return flowSpeedTable != null ? flowSpeedTable.get(world.getDimension()) : flowSpeed.applyAsInt(world);
     }
     protected int getLevelDecreasePerBlock(WorldView world) {
-        return levelDecreasePerBlock.applyAsInt(world);
+        return levelDecreasePerBlockTable != null ? levelDecreasePerBlockTable.get(world.getDimension()) :
+                levelDecreasePerBlock.applyAsInt(world);
     }
     public int getTickRate(WorldView world) {
-        return tickRate.applyAsInt(world);
+        int tickRate = tickRateTable != null ? tickRateTable.get(world.getDimension()) : this.tickRate.applyAsInt(world);
+        return adaptiveTickRate ? TickRatePolicy.apply(world, tickRate, tickPriority) : tickRate;
+    }
+
+    private static DimensionTable tableOf(ToIntFunction<WorldView> property) {
+        return property instanceof DimensionConstant constant ? new DimensionTable(constant) : null;
     }
     public float getBlastResistance() {
         return blastResistance;
@@ -208,6 +560,16 @@ public class FluidHandler extends FlowableFluid {
             return source.getBucketItem();
         }
 
+        @Override
+        public FluidState getStill(boolean falling) {
+            return source.getStill(falling);
+        }
+
+        @Override
+        public FluidState getFlowing(int level, boolean falling) {
+            return source.getFlowing(level, falling);
+        }
+
         @Override
         public BlockState toBlockState(FluidState state) {
             return source.toBlockState(state);
@@ -252,6 +614,61 @@ public class FluidHandler extends FlowableFluid {
         public float getBlastResistance() {
             return source.getBlastResistance();
         }
+
+        @Override
+        protected Map<Direction, FluidState> getSpread(WorldView world, BlockPos pos, BlockState state) {
+            return source.optimizedFlow ? FlowEngine.getSpread(this, world, pos, state) : super.getSpread(world, pos, state);
+        }
+
+        @Override
+        protected FluidState getUpdatedState(WorldView world, BlockPos pos, BlockState state) {
+            return source.optimizedFlow ? FlowEngine.getUpdatedState(this, world, pos, state) : super.getUpdatedState(world, pos, state);
+        }
+
+        int nextTickDelay(World world, BlockPos pos, FluidState oldState, FluidState newState) {
+            return getNextTickDelay(world, pos, oldState, newState);
+        }
+
+        @Override
+        protected void flow(WorldAccess world, BlockPos pos, BlockState state, Direction direction, FluidState fluidState) {
+            //flowing into a fluid it reacts with places the result instead, picked by the block it flows from
+            FluidInteraction interaction = source.interactionTable.get(world.getFluidState(pos).getFluid());
+            if (interaction == null || !react(world, pos, interaction, world.getFluidState(pos.offset(direction.getOpposite())).isStill()))
+                super.flow(world, pos, state, direction, fluidState);
+        }
+
+        void flowInto(WorldAccess world, BlockPos pos, BlockState state, Direction direction, FluidState fluidState) {
+            flow(world, pos, state, direction, fluidState);
+        }
+
+        void tryFlowAt(WorldAccess world, BlockPos pos, FluidState state) {
+            tryFlow(world, pos, state);
+        }
+
+        @Override
+        public void onScheduledTick(World world, BlockPos pos, FluidState state) {
+            if (world instanceof ServerWorld serverWorld) gate(serverWorld, pos, () -> super.onScheduledTick(world, pos, state));
+            else super.onScheduledTick(world, pos, state);
+        }
+
+        /**
+         * Runs a tick of this fluid, unless it has to {@linkplain PendingFlows wait} for an unloaded chunk, or its
+         * position has {@linkplain SettledFluids settled}. Every tick goes through here, planned or not.
+         */
+        void gate(ServerWorld world, BlockPos pos, Runnable tick) {
+            if (source.boundarySafe && PendingFlows.defer(world, this, pos)) return;
+
+            if (source.tracksSettled) SettledFluids.of(world).tick(this, world, pos, tick);
+            else tick.run();
+        }
+
+        /**
+         * The vanilla tick of this fluid at this position, if it's still there, without the {@linkplain #gate gate}.
+         */
+        void vanillaTick(World world, BlockPos pos) {
+            FluidState state = world.getFluidState(pos);
+            if (state.isOf(this)) super.onScheduledTick(world, pos, state);
+        }
     }
 
     @Contract(value = " -> new", pure = true)
@@ -302,6 +719,50 @@ public class FluidHandler extends FlowableFluid {
          * @see Block#getBlastResistance()
          */
         public float blastResistance = 100;
+        /**
+         * Does this fluid spread with the library's flow engine? It spreads just like vanilla fluids, but faster.
+         */
+        public boolean optimizedFlow = false;
+        /**
+         * Are the scheduled ticks of this fluid coalesced per chunk section? Every chunk section then keeps one
+         * scheduled batch per tick instead of one scheduled tick per block.
+         */
+        public boolean coalescedTicks = false;
+        /**
+         * Are positions of this fluid, which have settled, skipped until one of their neighbors changes?
+         * Large bodies of this fluid then stop re-evaluating themselves on every update around them.
+         */
+        public boolean tracksSettled = false;
+        /**
+         * Is the flow of this fluid planned off the server thread? Where the fluid spreads is then computed by workers,
+         * against a copy of the chunk sections around it, and only applied on the server thread.
+         * Implies {@link #coalescedTicks}.
+         */
+        public boolean plannedFlow = false;
+        /**
+         * Is the tick rate of this fluid stretched while the server is behind, and brought back once it's not? The stretch
+         * is kept per server, and applies to all of its worlds, since they share its tick time.
+         */
+        public boolean adaptiveTickRate = false;
+        /**
+         * How much of the adaptive stretch this fluid is spared: at 0 it's stretched like any other, at 1 never.
+         */
+        public float tickPriority = 0;
+        /**
+         * Does this fluid wait for unloaded chunks instead of loading them when it flows? A tick which may touch a chunk
+         * which isn't loaded is saved until that chunk loads, and only then ticked.
+         */
+        public boolean boundarySafe = false;
+        /**
+         * What happens when this fluid meets other fluids, by the other fluid. Looked up by identity, so every flow
+         * checks it with a single lookup.
+         * @see FluidInteraction
+         */
+        public Map<Fluid, FluidInteraction> interactions = new IdentityHashMap<>();
+        /**
+         * The settings of the block of this fluid, or {@code null} for a copy of the settings of water.
+         */
+        public AbstractBlock.Settings blockSettings = null;
 
         private Builder() { }
 
@@ -380,6 +841,105 @@ public class FluidHandler extends FlowableFluid {
             return this;
         }
 
+        public boolean optimizedFlow() {
+            return optimizedFlow;
+        }
+
+        public Builder optimizedFlow(boolean optimizedFlow) {
+            this.optimizedFlow = optimizedFlow;
+            return this;
+        }
+
+        public boolean coalescedTicks() {
+            return coalescedTicks;
+        }
+
+        public Builder coalescedTicks(boolean coalescedTicks) {
+            this.coalescedTicks = coalescedTicks;
+            return this;
+        }
+
+        public boolean tracksSettled() {
+            return tracksSettled;
+        }
+
+        public Builder tracksSettled(boolean tracksSettled) {
+            this.tracksSettled = tracksSettled;
+            return this;
+        }
+
+        public boolean plannedFlow() {
+            return plannedFlow;
+        }
+
+        public Builder plannedFlow(boolean plannedFlow) {
+            this.plannedFlow = plannedFlow;
+            return this;
+        }
+
+        public boolean adaptiveTickRate() {
+            return adaptiveTickRate;
+        }
+
+        public Builder adaptiveTickRate(boolean adaptiveTickRate) {
+            this.adaptiveTickRate = adaptiveTickRate;
+            return this;
+        }
+
+        public float tickPriority() {
+            return tickPriority;
+        }
+
+        public Builder tickPriority(float tickPriority) {
+            this.tickPriority = Math.max(0, Math.min(1, tickPriority));
+            return this;
+        }
+
+        public boolean boundarySafe() {
+            return boundarySafe;
+        }
+
+        public Builder boundarySafe(boolean boundarySafe) {
+            this.boundarySafe = boundarySafe;
+            return this;
+        }
+
+        public Map<Fluid, FluidInteraction> interactions() {
+            return interactions;
+        }
+
+        public AbstractBlock.Settings blockSettings() {
+            return blockSettings;
+        }
+
+        public Builder blockSettings(AbstractBlock.Settings blockSettings) {
+            this.blockSettings = blockSettings;
+            return this;
+        }
+
+        public Builder interactions(Map<Fluid, FluidInteraction> interactions) {
+            if (interactions != null)
+                this.interactions = new IdentityHashMap<>(interactions);
+            return this;
+        }
+
+        /**
+         * Declares what happens when this fluid meets one state of another fluid.
+         * @param fluid the still or the flowing fluid, like {@link net.minecraft.fluid.Fluids#WATER} or
+         * {@link net.minecraft.fluid.Fluids#FLOWING_WATER}
+         */
+        public Builder interaction(@NotNull Fluid fluid, @NotNull FluidInteraction interaction) {
+            interactions.put(fluid, interaction);
+            return this;
+        }
+
+        /**
+         * Declares what happens when this fluid meets both states of another fluid.
+         */
+        public Builder interaction(@NotNull FlowableFluid fluid, @NotNull FluidInteraction still, @NotNull FluidInteraction flowing) {
+            return interaction(fluid.getStill(), still).interaction(fluid.getFlowing(), flowing);
+        }
+
         public static Builder of(FluidHandler handler) {
             return new Builder()
                     .blastResistance(handler.blastResistance)
@@ -389,11 +949,20 @@ public class FluidHandler extends FlowableFluid {
                     .flowSpeed(handler.flowSpeed)
                     .infinite(handler.isInfinite())
                     .levelDecreasePerBlock(handler.levelDecreasePerBlock)
-                    .tickRate(handler.tickRate);
+                    .tickRate(handler.tickRate)
+                    .optimizedFlow(handler.optimizedFlow)
+                    .coalescedTicks(handler.coalescedTicks)
+                    .tracksSettled(handler.tracksSettled)
+                    .plannedFlow(handler.plannedFlow)
+                    .adaptiveTickRate(handler.adaptiveTickRate)
+                    .tickPriority(handler.tickPriority)
+                    .boundarySafe(handler.boundarySafe)
+                    .interactions(handler.interactions)
+                    .blockSettings(handler.blockSettings);
         }
 
         public FluidHandler build(ElderionIdentifier identifier) {
-            return new FluidHandler(this, identifier);
+            return StartupProfiler.time(new ElderlyEvent.Build(), identifier, null, () -> new FluidHandler(this, identifier));
         }
 
         public FluidHandler build(Author author, String path) {
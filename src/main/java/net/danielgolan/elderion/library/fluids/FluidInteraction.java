@@ -0,0 +1,63 @@
+package net.danielgolan.elderion.library.fluids;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.sound.SoundEvent;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * What happens when a library fluid meets another fluid, declared with
+ * {@link FluidHandler.Builder#interaction(net.minecraft.fluid.Fluid, FluidInteraction)}.
+ * The still and flowing states of the other fluid are different fluids, so each can be given its own interaction,
+ * and the result can depend on whether the block of this fluid which meets the other fluid is a source, like lava
+ * turns into obsidian or cobblestone. That's the block which reacts when the other fluid is beside or above it, or the
+ * block it flows from when this fluid flows into the other fluid.
+ *
+ * @param replaceable can the other fluid flow into blocks of this fluid?
+ * @param result the block placed where the other fluid meets a source of this fluid, or {@code null} if they don't
+ *               react
+ * @param flowingResult the block placed where the other fluid meets flowing blocks of this fluid, or {@code null} if
+ *                      they don't react
+ * @param sound the sound played when they react, or {@code null} for none
+ */
+public record FluidInteraction(boolean replaceable, @Nullable BlockState result, @Nullable BlockState flowingResult,
+                               @Nullable SoundEvent sound) {
+    /**
+     * The other fluid can flow into blocks of this fluid, and they don't react.
+     */
+    public static final FluidInteraction REPLACEABLE = new FluidInteraction(true, null, null, null);
+
+    /**
+     * @param result the block placed whether or not the block of this fluid is a source
+     */
+    public FluidInteraction(boolean replaceable, @Nullable BlockState result, @Nullable SoundEvent sound) {
+        this(replaceable, result, result, sound);
+    }
+
+    /**
+     * @param source is the block of this fluid a source?
+     * @return the block placed where the two fluids meet, or {@code null} if they don't react
+     */
+    public @Nullable BlockState result(boolean source) {
+        return source ? result : flowingResult;
+    }
+
+    /**
+     * @return an interaction where the two fluids turn into a block, like lava and water turn into stone
+     */
+    @Contract(value = "_, _ -> new", pure = true)
+    public static @NotNull FluidInteraction reaction(@NotNull BlockState result, @Nullable SoundEvent sound) {
+        return new FluidInteraction(false, result, sound);
+    }
+
+    /**
+     * @return an interaction where the two fluids turn into a block depending on whether the block of this fluid is a
+     * source, like lava turns into obsidian from a source and into cobblestone otherwise
+     */
+    @Contract(value = "_, _, _ -> new", pure = true)
+    public static @NotNull FluidInteraction reaction(@Nullable BlockState source, @Nullable BlockState flowing,
+                                                     @Nullable SoundEvent sound) {
+        return new FluidInteraction(false, source, flowing, sound);
+    }
+}
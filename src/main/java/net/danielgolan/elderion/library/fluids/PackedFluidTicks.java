@@ -0,0 +1,215 @@
+package net.danielgolan.elderion.library.fluids;
+
+import net.minecraft.fluid.Fluid;
+import net.minecraft.nbt.*;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.tick.TickPriority;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Saves the scheduled ticks of library fluids in chunks packed per chunk section, instead of a compound per tick.
+ * <p>
+ * Every section keeps a palette of its fluids, and a single byte array of its ticks sorted by position: the distance
+ * from the previous position, the fluid in the palette, the delay and the priority, each as a variable-length integer.
+ * Packed ticks are unpacked back into vanilla ticks before the chunk is read, exactly as they were, except for the order
+ * of ticks due on the same tick, which is by position.
+ */
+public final class PackedFluidTicks {
+    /**
+     * The key of the vanilla fluid ticks of a chunk
+     */
+    public static final String VANILLA_KEY = "fluid_ticks";
+    /**
+     * The key of the packed fluid ticks of a chunk
+     */
+    public static final String KEY = "elderly:fluid_ticks";
+
+    private PackedFluidTicks() { }
+
+    /**
+     * Moves the ticks of library fluids out of the vanilla ticks of a chunk into packed ones, along with its
+     * {@linkplain CoalescedFluidTicks coalesced ticks}.
+     * @param nbt the saved chunk
+     * @param coalesced the coalesced ticks of the world, if any
+     * @param time the current world time
+     */
+    public static void pack(@NotNull NbtCompound nbt, ChunkPos chunkPos, @Nullable CoalescedFluidTicks coalesced, long time) {
+        Map<String, Boolean> libraryFluids = new HashMap<>();
+        SortedMap<Integer, List<Tick>> sections = take(nbt, fluid -> libraryFluids.computeIfAbsent(fluid, PackedFluidTicks::isLibraryFluid));
+
+        if (coalesced != null) coalesced.forEach(chunkPos, (fluid, pos, triggerTick) -> add(sections,
+                Registry.FLUID.getId(fluid).toString(), pos.getX(), pos.getY(), pos.getZ(),
+                (int) (triggerTick - time), TickPriority.NORMAL.getIndex()));
+
+        put(nbt, sections);
+    }
+
+    /**
+     * Moves the vanilla ticks of some fluids of a chunk into packed ones.
+     * @param fluids which fluids to pack, by identifier
+     */
+    static void pack(@NotNull NbtCompound nbt, @NotNull Predicate<String> fluids) {
+        put(nbt, take(nbt, fluids));
+    }
+
+    /**
+     * Removes the vanilla ticks of some fluids of a chunk.
+     * @return the removed ticks, by section
+     */
+    private static @NotNull SortedMap<Integer, List<Tick>> take(@NotNull NbtCompound nbt, @NotNull Predicate<String> fluids) {
+        SortedMap<Integer, List<Tick>> sections = new TreeMap<>();
+
+        NbtList vanilla = nbt.getList(VANILLA_KEY, NbtElement.COMPOUND_TYPE);
+        for (Iterator<NbtElement> iterator = vanilla.iterator(); iterator.hasNext(); ) {
+            NbtCompound tick = (NbtCompound) iterator.next();
+            String fluid = tick.getString("i");
+            if (!fluids.test(fluid)) continue;
+
+            add(sections, fluid, tick.getInt("x"), tick.getInt("y"), tick.getInt("z"), tick.getInt("t"), tick.getInt("p"));
+            iterator.remove();
+        }
+
+        return sections;
+    }
+
+    private static void put(@NotNull NbtCompound nbt, @NotNull SortedMap<Integer, List<Tick>> sections) {
+        if (sections.isEmpty()) return;
+
+        NbtList packed = new NbtList();
+        for (Map.Entry<Integer, List<Tick>> section : sections.entrySet())
+            packed.add(pack(section.getKey(), section.getValue()));
+
+        nbt.put(KEY, packed);
+    }
+
+    /**
+     * Unpacks the packed ticks of a chunk back into its vanilla ticks.
+     * @param nbt the chunk being read
+     */
+    public static void unpack(@NotNull NbtCompound nbt, @NotNull ChunkPos chunkPos) {
+        if (!nbt.contains(KEY, NbtElement.LIST_TYPE)) return;
+
+        NbtList vanilla = nbt.getList(VANILLA_KEY, NbtElement.COMPOUND_TYPE);
+        for (NbtElement element : nbt.getList(KEY, NbtElement.COMPOUND_TYPE)) {
+            NbtCompound section = (NbtCompound) element;
+            int y = ChunkSectionPos.getBlockCoord(section.getInt("Y"));
+
+            NbtList paletteList = section.getList("Palette", NbtElement.STRING_TYPE);
+            String[] palette = new String[paletteList.size()];
+            for (int i = 0; i < palette.length; i++) palette[i] = paletteList.getString(i);
+
+            byte[] bytes = section.getByteArray("Ticks");
+            int[] cursor = {0};
+            int index = 0;
+
+            while (cursor[0] < bytes.length) {
+                index += readVarInt(bytes, cursor);
+                String fluid = palette[readVarInt(bytes, cursor)];
+                int delay = unzigzag(readVarInt(bytes, cursor)), priority = unzigzag(readVarInt(bytes, cursor));
+
+                NbtCompound tick = new NbtCompound();
+                tick.putString("i", fluid);
+                tick.putInt("x", chunkPos.getStartX() + (index & 15));
+                tick.putInt("y", y + (index >> 8 & 15));
+                tick.putInt("z", chunkPos.getStartZ() + (index >> 4 & 15));
+                tick.putInt("t", delay);
+                tick.putInt("p", priority);
+                vanilla.add(tick);
+            }
+        }
+
+        nbt.put(VANILLA_KEY, vanilla);
+        nbt.remove(KEY);
+    }
+
+    private static void add(@NotNull SortedMap<Integer, List<Tick>> sections, String fluid, int x, int y, int z, int delay, int priority) {
+        int index = (y & 15) << 8 | (z & 15) << 4 | x & 15;
+        sections.computeIfAbsent(y >> 4, key -> new ArrayList<>()).add(new Tick(index, fluid, delay, priority));
+    }
+
+    private static @NotNull NbtCompound pack(int y, @NotNull List<Tick> ticks) {
+        //stable, so ticks of the same position keep their order
+        ticks.sort(Comparator.comparingInt(Tick::index));
+
+        Map<String, Integer> palette = new LinkedHashMap<>();
+        Bytes bytes = new Bytes(ticks.size() * 4);
+        int previous = 0;
+
+        for (Tick tick : ticks) {
+            bytes.writeVarInt(tick.index - previous);
+            bytes.writeVarInt(palette.computeIfAbsent(tick.fluid, key -> palette.size()));
+            bytes.writeVarInt(zigzag(tick.delay));
+            bytes.writeVarInt(zigzag(tick.priority));
+            previous = tick.index;
+        }
+
+        NbtList paletteList = new NbtList();
+        for (String fluid : palette.keySet()) paletteList.add(NbtString.of(fluid));
+
+        NbtCompound section = new NbtCompound();
+        section.putInt("Y", y);
+        section.put("Palette", paletteList);
+        section.putByteArray("Ticks", bytes.toArray());
+        return section;
+    }
+
+    private static boolean isLibraryFluid(String id) {
+        Identifier identifier = Identifier.tryParse(id);
+        if (identifier == null) return false;
+
+        Optional<Fluid> fluid = Registry.FLUID.getOrEmpty(identifier);
+        return fluid.isPresent() && fluid.get() instanceof FluidHandler.Delegator;
+    }
+
+    private static int zigzag(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    private static int unzigzag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static int readVarInt(byte @NotNull [] bytes, int @NotNull [] cursor) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    private record Tick(int index, String fluid, int delay, int priority) { }
+
+    /**
+     * A growable byte array.
+     */
+    private static final class Bytes {
+        private byte[] bytes;
+        private int size = 0;
+
+        Bytes(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void writeVarInt(int value) {
+            if (size + 5 > bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        byte @NotNull [] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package net.danielgolan.elderion.library.fluids;
+
+import it.unimi.dsi.fastutil.longs.*;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The ticks of library fluids, which are {@linkplain FluidHandler.Builder#boundarySafe(boolean) boundary safe},
+ * waiting for a chunk to load, in one world.
+ * <p>
+ * Before such a fluid ticks, every chunk its tick may read or write is checked without loading it. If one isn't loaded,
+ * the tick waits for it here instead of loading it, and is scheduled again once it loads.
+ * Waiting ticks are saved with the world.
+ */
+public final class PendingFlows extends PersistentState {
+    private static final String ID = "elderly_pending_flows";
+
+    /**
+     * Waiting positions of every fluid, by the chunk they're waiting for
+     */
+    private final Long2ObjectMap<Map<Fluid, LongSet>> pending = new Long2ObjectOpenHashMap<>();
+    private int size = 0;
+
+    /**
+     * @return the pending flows of a world
+     */
+    public static @NotNull PendingFlows of(@NotNull ServerWorld world) {
+        return world.getPersistentStateManager().getOrCreate(PendingFlows::fromNbt, PendingFlows::new, ID);
+    }
+
+    /**
+     * Makes a tick wait if a chunk it may touch isn't loaded.
+     * @return whether the tick has to wait
+     */
+    static boolean defer(@NotNull ServerWorld world, @NotNull FluidHandler.Delegator fluid, @NotNull BlockPos pos) {
+        //the spread search, its neighbors, and the neighbors updated by the flow
+        int reach = Math.max(2, fluid.getFlowSpeed(world) + 1) + 1;
+        int minX = pos.getX() - reach >> 4, maxX = pos.getX() + reach >> 4;
+        int minZ = pos.getZ() - reach >> 4, maxZ = pos.getZ() + reach >> 4;
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (world.getChunkManager().isChunkLoaded(x, z)) continue;
+
+                of(world).add(ChunkPos.toLong(x, z), fluid, pos.asLong());
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Schedules the ticks which were waiting for this chunk. Called once it's loaded.
+     */
+    public void replay(@NotNull ServerWorld world, @NotNull WorldChunk chunk) {
+        Map<Fluid, LongSet> fluids = pending.remove(chunk.getPos().toLong());
+        if (fluids == null) return;
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (Map.Entry<Fluid, LongSet> entry : fluids.entrySet()) {
+            size -= entry.getValue().size();
+
+            for (LongIterator iterator = entry.getValue().iterator(); iterator.hasNext(); ) {
+                pos.set(iterator.nextLong());
+
+                //a tick whose own chunk isn't loaded waits for it instead
+                if (!world.getChunkManager().isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4))
+                    add(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4), entry.getKey(), pos.asLong());
+                else world.createAndScheduleFluidTick(pos.toImmutable(), entry.getKey(), 1);
+            }
+        }
+
+        markDirty();
+    }
+
+    /**
+     * @return how many ticks are waiting
+     */
+    public int size() {
+        return size;
+    }
+
+    private void add(long chunk, Fluid fluid, long pos) {
+        if (pending.computeIfAbsent(chunk, key -> new IdentityHashMap<>())
+                .computeIfAbsent(fluid, key -> new LongOpenHashSet()).add(pos)) {
+            size++;
+            markDirty();
+        }
+    }
+
+    @Override
+    public NbtCompound writeNbt(@NotNull NbtCompound nbt) {
+        NbtList chunks = new NbtList();
+
+        for (Long2ObjectMap.Entry<Map<Fluid, LongSet>> chunk : pending.long2ObjectEntrySet()) {
+            NbtList fluids = new NbtList();
+
+            for (Map.Entry<Fluid, LongSet> entry : chunk.getValue().entrySet()) {
+                NbtCompound fluid = new NbtCompound();
+                fluid.putString("Fluid", Registry.FLUID.getId(entry.getKey()).toString());
+                fluid.putLongArray("Positions", entry.getValue().toLongArray());
+                fluids.add(fluid);
+            }
+
+            NbtCompound compound = new NbtCompound();
+            compound.putLong("Chunk", chunk.getLongKey());
+            compound.put("Fluids", fluids);
+            chunks.add(compound);
+        }
+
+        nbt.put("Chunks", chunks);
+        return nbt;
+    }
+
+    private static @NotNull PendingFlows fromNbt(@NotNull NbtCompound nbt) {
+        PendingFlows flows = new PendingFlows();
+
+        for (NbtElement chunkElement : nbt.getList("Chunks", NbtElement.COMPOUND_TYPE)) {
+            NbtCompound chunk = (NbtCompound) chunkElement;
+
+            for (NbtElement fluidElement : chunk.getList("Fluids", NbtElement.COMPOUND_TYPE)) {
+                NbtCompound compound = (NbtCompound) fluidElement;
+                Identifier id = Identifier.tryParse(compound.getString("Fluid"));
+
+                //fluids of removed mods are dropped
+                if (id == null || !Registry.FLUID.containsId(id)) continue;
+
+                Fluid fluid = Registry.FLUID.get(id);
+                for (long pos : compound.getLongArray("Positions")) flows.add(chunk.getLong("Chunk"), fluid, pos);
+            }
+        }
+
+        flows.setDirty(false);
+        return flows;
+    }
+}
@@ -0,0 +1,171 @@
+package net.danielgolan.elderion.library.fluids;
+
+import it.unimi.dsi.fastutil.longs.*;
+import net.minecraft.block.Block;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Tracks which positions of library fluids, which {@linkplain FluidHandler.Builder#tracksSettled(boolean) track}
+ * settling, have settled in one world.
+ * <p>
+ * A position settles after a scheduled tick which changed neither it, nor any of its neighbors, nor the blocks below
+ * its horizontal neighbors and below the block under it. Until one of them changes, its scheduled ticks are skipped,
+ * instead of updating and spreading the fluid just to find out nothing changed again. Positions are forgotten when
+ * their fluid is replaced.
+ * <p>
+ * Those are the blocks a tick writes, and most of the blocks it reads, but not all of them: the spread of a fluid
+ * looks for holes up to its flow speed away. Unlike vanilla, a settled position doesn't spread towards a hole which
+ * opens further away than right beside it, until something closer to it changes.
+ */
+public final class SettledFluids {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Fingerprints of settled positions, by chunk
+     */
+    private final Long2ObjectMap<Long2LongMap> settled = new Long2ObjectOpenHashMap<>();
+    /**
+     * Positions which changed on their last tick, by chunk
+     */
+    private final Long2ObjectMap<LongSet> active = new Long2ObjectOpenHashMap<>();
+    private int settledCount = 0, activeCount = 0;
+    private long skippedTicks = 0;
+
+    private final BlockPos.Mutable neighbor = new BlockPos.Mutable();
+
+    /**
+     * @return the settled fluids of a world
+     */
+    public static @NotNull SettledFluids of(@NotNull ServerWorld world) {
+        return ((Holder) world).elderly$settledFluids();
+    }
+
+    /**
+     * Ticks a fluid, unless it has settled here.
+     * @param tick the vanilla tick
+     */
+    void tick(@NotNull FluidHandler.Delegator fluid, @NotNull World world, @NotNull BlockPos pos, @NotNull Runnable tick) {
+        long chunk = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4), position = pos.asLong();
+        long before = fingerprint(world, pos);
+
+        Long2LongMap settled = this.settled.get(chunk);
+        if (settled != null && settled.containsKey(position)) {
+            if (settled.get(position) == before) {
+                skippedTicks++;
+                return;
+            }
+            unsettle(chunk, position);
+            settledCount--;
+        }
+
+        tick.run();
+
+        if (!world.getFluidState(pos).getFluid().matchesType(fluid)) {
+            if (deactivate(chunk, position)) activeCount--;
+        } else if (fingerprint(world, pos) == before) {
+            if (deactivate(chunk, position)) activeCount--;
+            this.settled.computeIfAbsent(chunk, key -> new Long2LongOpenHashMap()).put(position, before);
+            settledCount++;
+        } else if (active.computeIfAbsent(chunk, key -> new LongOpenHashSet()).add(position)) activeCount++;
+    }
+
+    /**
+     * Forgets a position, whose fluid was replaced.
+     */
+    void remove(@NotNull BlockPos pos) {
+        long chunk = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4), position = pos.asLong();
+
+        Long2LongMap settled = this.settled.get(chunk);
+        if (settled != null && settled.containsKey(position)) {
+            unsettle(chunk, position);
+            settledCount--;
+        }
+        if (deactivate(chunk, position)) activeCount--;
+    }
+
+    /**
+     * Forgets the positions of a chunk.
+     */
+    public void remove(@NotNull ChunkPos chunkPos) {
+        Long2LongMap settled = this.settled.remove(chunkPos.toLong());
+        if (settled != null) settledCount -= settled.size();
+
+        LongSet active = this.active.remove(chunkPos.toLong());
+        if (active != null) activeCount -= active.size();
+    }
+
+    /**
+     * @return how many positions changed on their last tick
+     */
+    public int active() {
+        return activeCount;
+    }
+
+    /**
+     * @return how many positions have settled
+     */
+    public int settled() {
+        return settledCount;
+    }
+
+    /**
+     * @return how many scheduled ticks were skipped, since their positions have settled
+     */
+    public long skippedTicks() {
+        return skippedTicks;
+    }
+
+    private boolean deactivate(long chunk, long position) {
+        LongSet positions = active.get(chunk);
+        if (positions == null || !positions.remove(position)) return false;
+
+        if (positions.isEmpty()) active.remove(chunk);
+        return true;
+    }
+
+    private void unsettle(long chunk, long position) {
+        Long2LongMap positions = settled.get(chunk);
+        positions.remove(position);
+        if (positions.isEmpty()) settled.remove(chunk);
+    }
+
+    /**
+     * @return a hash of the block states at this position, around it, below its horizontal neighbors, and two blocks
+     * below it
+     */
+    private long fingerprint(@NotNull World world, @NotNull BlockPos pos) {
+        long hash = mix(Block.getRawIdFromState(world.getBlockState(pos)));
+        for (Direction direction : DIRECTIONS) {
+            hash = mix(hash * 31 + Block.getRawIdFromState(world.getBlockState(neighbor.set(pos, direction))));
+            //the holes it could flow down into
+            if (direction.getAxis().isHorizontal())
+                hash = mix(hash * 31 + Block.getRawIdFromState(world.getBlockState(neighbor.move(Direction.DOWN))));
+        }
+
+        //read when it flows down, to update the block below
+        return mix(hash * 31 + Block.getRawIdFromState(world.getBlockState(neighbor.set(pos).move(Direction.DOWN, 2))));
+    }
+
+    /**
+     * The finalizer of MurmurHash3, so fingerprints of different neighborhoods practically never collide.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ hash >>> 33;
+    }
+
+    /**
+     * Implemented by the server world, which keeps its settled fluids.
+     */
+    public interface Holder {
+        SettledFluids elderly$settledFluids();
+    }
+}
@@ -0,0 +1,139 @@
+package net.danielgolan.elderion.library.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidConstants;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleSlotStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A block of a library fluid, as a storage of one bucket: a source can be drained, and any other state of the fluid
+ * can be filled into a source.
+ * <p>
+ * Storages are reused for every lookup of the same position, so transactions don't allocate: the pending change is a
+ * single small integer, and the world is only changed once the outermost transaction commits. Sharing the storage also
+ * means a source can't be drained twice by two lookups in the same transaction. Every world keeps its own storages, so
+ * they're only ever used by the thread of their world, and go away with it.
+ */
+public final class SourceBlockStorage extends SnapshotParticipant<Integer> implements SingleSlotStorage<FluidVariant> {
+    private static final int UNCHANGED = 0, DRAINED = 1, FILLED = 2;
+    /**
+     * The most storages kept per world before they're dropped
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    private final FluidHandler handler;
+    private final World world;
+    private final BlockPos pos;
+    private int change = UNCHANGED;
+
+    private SourceBlockStorage(FluidHandler handler, World world, BlockPos pos) {
+        this.handler = handler;
+        this.world = world;
+        this.pos = pos;
+    }
+
+    /**
+     * @return the storage of this fluid's block at this position
+     */
+    static @NotNull SourceBlockStorage find(@NotNull FluidHandler handler, @NotNull World world, @NotNull BlockPos pos) {
+        Long2ObjectMap<SourceBlockStorage> storages = ((Holder) world).elderly$sourceBlockStorages();
+        //storages taking part in an open transaction must stay the only storage of their position
+        if (storages.size() >= CACHE_SIZE && !Transaction.isOpen()) storages.clear();
+
+        SourceBlockStorage storage = storages.get(pos.asLong());
+        if (storage == null || storage.handler != handler) {
+            storage = new SourceBlockStorage(handler, world, pos.toImmutable());
+            storages.put(pos.asLong(), storage);
+        }
+
+        return storage;
+    }
+
+    @Override
+    public long insert(FluidVariant resource, long maxAmount, TransactionContext transaction) {
+        if (maxAmount < FluidConstants.BUCKET || !resource.equals(handler.variant()) || getAmount() != 0) return 0;
+        //only a block of this fluid is filled, anything else would swallow the bucket
+        if (!world.getBlockState(pos).isOf(source().getBlock())) return 0;
+
+        updateSnapshots(transaction);
+        change = change == DRAINED ? UNCHANGED : FILLED;
+        return FluidConstants.BUCKET;
+    }
+
+    @Override
+    public long extract(FluidVariant resource, long maxAmount, TransactionContext transaction) {
+        if (maxAmount < FluidConstants.BUCKET || !resource.equals(handler.variant()) || getAmount() == 0) return 0;
+
+        updateSnapshots(transaction);
+        change = change == FILLED ? UNCHANGED : DRAINED;
+        return FluidConstants.BUCKET;
+    }
+
+    @Override
+    public boolean isResourceBlank() {
+        return getAmount() == 0;
+    }
+
+    @Override
+    public FluidVariant getResource() {
+        return getAmount() == 0 ? FluidVariant.blank() : handler.variant();
+    }
+
+    @Override
+    public long getAmount() {
+        return switch (change) {
+            case DRAINED -> 0;
+            case FILLED -> FluidConstants.BUCKET;
+            default -> world.getBlockState(pos) == source() ? FluidConstants.BUCKET : 0;
+        };
+    }
+
+    @Override
+    public long getCapacity() {
+        return FluidConstants.BUCKET;
+    }
+
+    @Override
+    protected Integer createSnapshot() {
+        //small integers are cached, so this doesn't allocate
+        return change;
+    }
+
+    @Override
+    protected void readSnapshot(Integer snapshot) {
+        change = snapshot;
+    }
+
+    @Override
+    protected void onFinalCommit() {
+        int change = this.change;
+        this.change = UNCHANGED;
+
+        //the block may have changed since this storage was found
+        BlockState state = world.getBlockState(pos);
+        if (!state.isOf(source().getBlock())) return;
+
+        if (change == DRAINED && state == source()) world.setBlockState(pos, Blocks.AIR.getDefaultState(), Block.NOTIFY_ALL);
+        else if (change == FILLED && state != source()) world.setBlockState(pos, source(), Block.NOTIFY_ALL);
+    }
+
+    private BlockState source() {
+        return handler.toBlockState(handler.getStill(false));
+    }
+
+    /**
+     * Implemented by the world, which keeps the storages found in it.
+     */
+    public interface Holder {
+        Long2ObjectMap<SourceBlockStorage> elderly$sourceBlockStorages();
+    }
+}
@@ -0,0 +1,93 @@
+package net.danielgolan.elderion.library.fluids;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldView;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stretches the tick rate of library fluids which {@linkplain FluidHandler.Builder#adaptiveTickRate(boolean) adapt}
+ * their tick rate while the server is behind.
+ * <p>
+ * Once the average tick of the server takes longer than the budget, the scale grows by a small step every tick, up to
+ * its maximum; once it's back under the budget by the hysteresis, the scale shrinks back to 1 the same way.
+ * Between the two, the scale stays as it is, so it doesn't flip back and forth around the budget.
+ * <p>
+ * Every server keeps its own scale, starting from 1. It follows the tick time of the whole server, so it's shared by
+ * all of its worlds: one lagging dimension stretches the tick rate in the others too. Client worlds are never stretched.
+ * <p>
+ * Configured with the system properties {@code elderly.fluids.mspt} (the budget, in milliseconds, 45 by default),
+ * {@code elderly.fluids.hysteresis} (a fraction of the budget, 0.1 by default), {@code elderly.fluids.maxScale}
+ * (4 by default) and {@code elderly.fluids.scaleStep} (0.02 by default).
+ */
+public final class TickRatePolicy {
+    //before the properties, which log while they're read
+    private static final Logger LOGGER = LoggerFactory.getLogger("Elderly Library");
+
+    private static final float BUDGET = floatProperty("elderly.fluids.mspt", 45);
+    private static final float HYSTERESIS = floatProperty("elderly.fluids.hysteresis", 0.1F);
+    private static final float MAX_SCALE = Math.max(1, floatProperty("elderly.fluids.maxScale", 4));
+    private static final float SCALE_STEP = floatProperty("elderly.fluids.scaleStep", 0.02F);
+
+    private TickRatePolicy() { }
+
+    /**
+     * Called at the end of every server tick.
+     */
+    public static void update(@NotNull MinecraftServer server) {
+        Holder holder = (Holder) server;
+        float mspt = server.getTickTime(), scale = holder.elderly$tickRateScale();
+
+        if (mspt > BUDGET) holder.elderly$tickRateScale(Math.min(MAX_SCALE, scale + SCALE_STEP));
+        else if (mspt < BUDGET * (1 - HYSTERESIS)) holder.elderly$tickRateScale(Math.max(1, scale - SCALE_STEP));
+    }
+
+    /**
+     * @param server the server, or {@code null} for a client
+     * @return the current scale of the tick rate of fluids with no priority on this server, from 1 up to its maximum
+     */
+    public static float scale(@Nullable MinecraftServer server) {
+        return server == null ? 1 : ((Holder) server).elderly$tickRateScale();
+    }
+
+    /**
+     * @param server the server, or {@code null} for a client
+     * @param priority from 0, stretched by the whole {@linkplain #scale(MinecraftServer) scale}, to 1, never stretched
+     * @return the current scale of the tick rate of fluids with this priority on this server
+     */
+    public static float scale(@Nullable MinecraftServer server, float priority) {
+        return 1 + (scale(server) - 1) * (1 - priority);
+    }
+
+    /**
+     * @return this tick rate, stretched for a fluid with this priority in this world
+     */
+    static int apply(WorldView world, int tickRate, float priority) {
+        float scale = scale(world instanceof World w ? w.getServer() : null, priority);
+        return scale == 1 ? tickRate : Math.round(tickRate * scale);
+    }
+
+    private static float floatProperty(String key, float defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) return defaultValue;
+
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid value for {}: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Implemented by the server, which keeps its scale.
+     */
+    public interface Holder {
+        float elderly$tickRateScale();
+
+        void elderly$tickRateScale(float scale);
+    }
+}
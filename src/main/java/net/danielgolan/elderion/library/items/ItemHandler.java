@@ -2,13 +2,18 @@ package net.danielgolan.elderion.library.items;
 
 import net.danielgolan.elderion.library.Author;
 import net.danielgolan.elderion.library.ElderionIdentifier;
+import net.danielgolan.elderion.library.RegistrationBatch;
+import net.danielgolan.elderion.library.profiling.ElderlyEvent;
+import net.danielgolan.elderion.library.profiling.StartupProfiler;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemGroup;
 import net.minecraft.util.registry.Registry;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
-public record ItemHandler<I extends Item>(I item, ElderionIdentifier identifier) {
+import java.util.List;
+
+public record ItemHandler<I extends Item>(I item, ElderionIdentifier identifier) implements RegistrationBatch.Registrable {
     public static @NotNull ItemHandler<Item> of(ElderionIdentifier identifier) {
         return of(identifier, ItemGroup.MISC);
     }
@@ -26,6 +31,14 @@ public record ItemHandler<I extends Item>(I item, ElderionIdentifier identifier)
     }
 
     public I register() {
-        return Registry.register(Registry.ITEM, identifier.toIdentifier(), item());
+        try (StartupProfiler.Section ignored = StartupProfiler.start(new ElderlyEvent.Register(), identifier, null)) {
+            StartupProfiler.created(1);
+            return Registry.register(Registry.ITEM, identifier.toIdentifier(), item());
+        }
+    }
+
+    @Override
+    public @NotNull List<RegistrationBatch.Entry<?>> prepare() {
+        return List.of(new RegistrationBatch.Entry<>(Registry.ITEM, identifier.toIdentifier(), item()));
     }
 }
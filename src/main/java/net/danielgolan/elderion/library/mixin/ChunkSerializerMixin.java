@@ -0,0 +1,32 @@
+package net.danielgolan.elderion.library.mixin;
+
+import net.danielgolan.elderion.library.fluids.CoalescedFluidTicks;
+import net.danielgolan.elderion.library.fluids.PackedFluidTicks;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.ChunkSerializer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ProtoChunk;
+import net.minecraft.world.poi.PointOfInterestStorage;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Saves the scheduled ticks of library fluids, including {@linkplain CoalescedFluidTicks coalesced} ones,
+ * as {@link PackedFluidTicks}, and unpacks them before a chunk is read.
+ */
+@Mixin(ChunkSerializer.class)
+public abstract class ChunkSerializerMixin {
+    @Inject(method = "serialize", at = @At("RETURN"))
+    private static void elderly$packFluidTicks(ServerWorld world, Chunk chunk, CallbackInfoReturnable<NbtCompound> cir) {
+        PackedFluidTicks.pack(cir.getReturnValue(), chunk.getPos(), CoalescedFluidTicks.of(world.getFluidTickScheduler()), world.getTime());
+    }
+
+    @Inject(method = "deserialize", at = @At("HEAD"))
+    private static void elderly$unpackFluidTicks(ServerWorld world, PointOfInterestStorage poiStorage, ChunkPos chunkPos, NbtCompound nbt, CallbackInfoReturnable<ProtoChunk> cir) {
+        PackedFluidTicks.unpack(nbt, chunkPos);
+    }
+}
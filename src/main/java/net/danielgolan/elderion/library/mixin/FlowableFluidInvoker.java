@@ -0,0 +1,33 @@
+package net.danielgolan.elderion.library.mixin;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.fluid.FlowableFluid;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.WorldAccess;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+/**
+ * Exposes the flow checks of {@link FlowableFluid}, so library fluids can spread exactly like vanilla fluids do.
+ */
+@Mixin(FlowableFluid.class)
+public interface FlowableFluidInvoker {
+    @Invoker("receivesFlow")
+    boolean elderly$receivesFlow(Direction face, BlockView world, BlockPos pos, BlockState state, BlockPos fromPos, BlockState fromState);
+
+    @Invoker("canFlowThrough")
+    boolean elderly$canFlowThrough(BlockView world, Fluid fluid, BlockPos pos, BlockState state, Direction face, BlockPos fromPos, BlockState fromState, FluidState fluidState);
+
+    @Invoker("canFlowDownTo")
+    boolean elderly$canFlowDownTo(BlockView world, Fluid fluid, BlockPos pos, BlockState state, BlockPos fromPos, BlockState fromState);
+
+    @Invoker("canFlow")
+    boolean elderly$canFlow(BlockView world, BlockPos fluidPos, BlockState fluidBlockState, Direction flowDirection, BlockPos flowTo, BlockState flowToBlockState, FluidState fluidState, Fluid fluid);
+
+    @Invoker("flowToSides")
+    void elderly$flowToSides(WorldAccess world, BlockPos pos, FluidState fluidState, BlockState blockState);
+}
@@ -0,0 +1,25 @@
+package net.danielgolan.elderion.library.mixin;
+
+import net.danielgolan.elderion.library.fluids.TickRatePolicy;
+import net.minecraft.server.MinecraftServer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Keeps the {@linkplain TickRatePolicy tick rate scale} of library fluids on every server.
+ */
+@Mixin(MinecraftServer.class)
+public abstract class MinecraftServerMixin implements TickRatePolicy.Holder {
+    //written on the server thread, read wherever fluids are ticked or planned
+    @Unique private volatile float elderly$tickRateScale = 1;
+
+    @Override
+    public float elderly$tickRateScale() {
+        return elderly$tickRateScale;
+    }
+
+    @Override
+    public void elderly$tickRateScale(float scale) {
+        elderly$tickRateScale = scale;
+    }
+}
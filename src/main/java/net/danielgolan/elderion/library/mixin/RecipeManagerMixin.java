@@ -0,0 +1,72 @@
+package net.danielgolan.elderion.library.mixin;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonElement;
+import net.danielgolan.elderion.library.Elderly;
+import net.danielgolan.elderion.library.StonecuttingIndex;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.recipe.Recipe;
+import net.minecraft.recipe.RecipeManager;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Injects the recipes generated by this library straight into the vanilla {@link RecipeManager} on every data reload,
+ * without serializing them to JSON. Recipes loaded from data packs take precedence.
+ * <p>
+ * Stonecutter lookups are then served by a {@link StonecuttingIndex} of these recipes.
+ */
+@Mixin(RecipeManager.class)
+public abstract class RecipeManagerMixin {
+    @Shadow private Map<RecipeType<?>, Map<Identifier, Recipe<?>>> recipes;
+    @Shadow private Map<Identifier, Recipe<?>> recipesById;
+    @Unique private StonecuttingIndex elderly$stonecutting = null;
+
+    @Inject(method = "apply(Ljava/util/Map;Lnet/minecraft/resource/ResourceManager;Lnet/minecraft/util/profiler/Profiler;)V", at = @At("TAIL"))
+    private void elderly$injectRecipes(Map<Identifier, JsonElement> map, ResourceManager resourceManager, Profiler profiler, CallbackInfo ci) {
+        Map<Identifier, Recipe<?>> injected = Elderly.RecipeManager.injectedRecipes();
+        elderly$stonecutting = null;
+        if (injected.isEmpty()) return;
+
+        Map<RecipeType<?>, ImmutableMap.Builder<Identifier, Recipe<?>>> byType = new HashMap<>();
+        recipes.forEach((type, typeRecipes) -> byType.computeIfAbsent(type, t -> ImmutableMap.builder()).putAll(typeRecipes));
+
+        ImmutableMap.Builder<Identifier, Recipe<?>> byId = ImmutableMap.<Identifier, Recipe<?>>builder().putAll(recipesById);
+
+        injected.forEach((identifier, recipe) -> {
+            if (recipesById.containsKey(identifier)) return;
+
+            byType.computeIfAbsent(recipe.getType(), t -> ImmutableMap.builder()).put(identifier, recipe);
+            byId.put(identifier, recipe);
+        });
+
+        ImmutableMap.Builder<RecipeType<?>, Map<Identifier, Recipe<?>>> recipes = ImmutableMap.builder();
+        byType.forEach((type, builder) -> recipes.put(type, builder.build()));
+
+        this.recipes = recipes.build();
+        this.recipesById = byId.build();
+
+        elderly$stonecutting = StonecuttingIndex.of(this.recipes.getOrDefault(RecipeType.STONECUTTING, Map.of()), injected);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Inject(method = "getAllMatches", at = @At("HEAD"), cancellable = true)
+    private <C extends Inventory, T extends Recipe<C>> void elderly$getStonecuttingMatches(RecipeType<T> type, C inventory, World world, CallbackInfoReturnable<List<T>> cir) {
+        if (type == RecipeType.STONECUTTING && elderly$stonecutting != null)
+            cir.setReturnValue((List<T>) (List<?>) elderly$stonecutting.getAllMatches(inventory, world));
+    }
+}
@@ -0,0 +1,29 @@
+package net.danielgolan.elderion.library.mixin;
+
+import net.danielgolan.elderion.library.fluids.CoalescedFluidTicks;
+import net.danielgolan.elderion.library.fluids.SettledFluids;
+import net.minecraft.server.world.ServerWorld;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Keeps the {@link SettledFluids} of every server world, and introduces the world to its fluid tick scheduler.
+ */
+@Mixin(ServerWorld.class)
+public abstract class ServerWorldMixin implements SettledFluids.Holder {
+    @Unique private final SettledFluids elderly$settledFluids = new SettledFluids();
+
+    @Override
+    public SettledFluids elderly$settledFluids() {
+        return elderly$settledFluids;
+    }
+
+    @Inject(method = "<init>", at = @At("TAIL"))
+    private void elderly$introduceWorld(CallbackInfo ci) {
+        ServerWorld world = (ServerWorld) (Object) this;
+        ((CoalescedFluidTicks.Holder) world.getFluidTickScheduler()).elderly$world(world);
+    }
+}
@@ -0,0 +1,22 @@
+package net.danielgolan.elderion.library.mixin;
+
+import net.danielgolan.elderion.library.blocks.NeighborConnections;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.util.registry.SimpleRegistry;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.Map;
+
+/**
+ * Drops the {@link NeighborConnections} table whenever block tags are loaded, on the server or from it.
+ */
+@Mixin(SimpleRegistry.class)
+public abstract class SimpleRegistryMixin {
+    @Inject(method = "populateTags", at = @At("TAIL"))
+    private void elderly$dropConnections(Map<?, ?> tagEntries, CallbackInfo ci) {
+        if ((Object) this == Registry.BLOCK) NeighborConnections.invalidate();
+    }
+}
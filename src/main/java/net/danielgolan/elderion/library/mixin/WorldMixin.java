@@ -0,0 +1,21 @@
+package net.danielgolan.elderion.library.mixin;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.danielgolan.elderion.library.fluids.SourceBlockStorage;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Keeps the {@link SourceBlockStorage}s found in every world, client or server.
+ */
+@Mixin(World.class)
+public abstract class WorldMixin implements SourceBlockStorage.Holder {
+    @Unique private final Long2ObjectMap<SourceBlockStorage> elderly$sourceBlockStorages = new Long2ObjectOpenHashMap<>();
+
+    @Override
+    public Long2ObjectMap<SourceBlockStorage> elderly$sourceBlockStorages() {
+        return elderly$sourceBlockStorages;
+    }
+}
@@ -0,0 +1,81 @@
+package net.danielgolan.elderion.library.mixin;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import net.danielgolan.elderion.library.fluids.CoalescedFluidTicks;
+import net.danielgolan.elderion.library.fluids.FluidHandler;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.tick.ChunkTickScheduler;
+import net.minecraft.world.tick.OrderedTick;
+import net.minecraft.world.tick.WorldTickScheduler;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Routes the scheduled ticks of library fluids which {@linkplain FluidHandler#coalescedTicks coalesce} their ticks
+ * to the {@link CoalescedFluidTicks} of the world, and ticks them right after the vanilla ones, within what's left of
+ * the scheduler's budget for the tick.
+ */
+@Mixin(WorldTickScheduler.class)
+public abstract class WorldTickSchedulerMixin<T> implements CoalescedFluidTicks.Holder {
+    @Shadow @Final private LongPredicate tickingFutureReadyPredicate;
+    @Shadow @Final private Long2ObjectMap<ChunkTickScheduler<T>> chunkTickSchedulers;
+    @Shadow @Final private List<OrderedTick<T>> tickedTicks;
+    @Unique private CoalescedFluidTicks elderly$coalescedFluidTicks = null;
+    @Unique private ServerWorld elderly$world = null;
+
+    @Override
+    public CoalescedFluidTicks elderly$coalescedFluidTicks(boolean create) {
+        if (create && elderly$coalescedFluidTicks == null) elderly$coalescedFluidTicks = new CoalescedFluidTicks(elderly$world);
+        return elderly$coalescedFluidTicks;
+    }
+
+    @Override
+    public void elderly$world(ServerWorld world) {
+        elderly$world = world;
+    }
+
+    @Inject(method = "scheduleTick", at = @At("HEAD"), cancellable = true)
+    private void elderly$coalesce(OrderedTick<T> tick, CallbackInfo ci) {
+        if (tick.type() instanceof FluidHandler.Delegator fluid && fluid.source.coalescedTicks) {
+            //left to vanilla, which refuses ticks in chunks which aren't loaded
+            if (!chunkTickSchedulers.containsKey(ChunkPos.toLong(tick.pos()))) return;
+
+            elderly$coalescedFluidTicks(true).schedule(fluid, tick.pos(), tick.triggerTick());
+            ci.cancel();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    //before the vanilla ticks are cleared, to know how many of them ran
+    @Inject(method = "tick(JILjava/util/function/BiConsumer;)V", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/world/tick/WorldTickScheduler;clear()V"))
+    private void elderly$tickCoalesced(long time, int maxTicks, BiConsumer<BlockPos, T> ticker, CallbackInfo ci) {
+        if (elderly$coalescedFluidTicks != null && tickedTicks.size() < maxTicks)
+            elderly$coalescedFluidTicks.tick(time, maxTicks - tickedTicks.size(), tickingFutureReadyPredicate,
+                    (BiConsumer<BlockPos, Fluid>) ticker);
+    }
+
+    @Inject(method = "isQueued", at = @At("HEAD"), cancellable = true)
+    private void elderly$isQueued(BlockPos pos, T type, CallbackInfoReturnable<Boolean> cir) {
+        if (elderly$coalescedFluidTicks != null && type instanceof Fluid fluid && elderly$coalescedFluidTicks.isQueued(pos, fluid))
+            cir.setReturnValue(true);
+    }
+
+    @Inject(method = "removeChunkTickScheduler", at = @At("HEAD"))
+    private void elderly$removeCoalesced(ChunkPos pos, CallbackInfo ci) {
+        if (elderly$coalescedFluidTicks != null) elderly$coalescedFluidTicks.remove(pos);
+    }
+}
@@ -0,0 +1,50 @@
+package net.danielgolan.elderion.library.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of all the JDK Flight Recorder events of this library.
+ */
+@Category("Elderly Library")
+@StackTrace(false)
+public abstract class ElderlyEvent extends Event {
+    @Label("Identifier")
+    @Description("The identifier of the handler")
+    public String identifier;
+
+    @Label("Variation")
+    @Description("The block variation, if any")
+    public String variation;
+
+    /**
+     * Built by a {@code build(ElderionIdentifier)} method of a builder.
+     */
+    @jdk.jfr.Name("net.danielgolan.elderly.Build")
+    @Label("Handler Build")
+    public static final class Build extends ElderlyEvent { }
+
+    /**
+     * A variation generated by a {@link net.danielgolan.elderion.library.blocks.BlockGenerator}.
+     */
+    @jdk.jfr.Name("net.danielgolan.elderly.GenerateVariation")
+    @Label("Variation Generation")
+    public static final class GenerateVariation extends ElderlyEvent { }
+
+    /**
+     * The recipes generated for a handler.
+     */
+    @jdk.jfr.Name("net.danielgolan.elderly.GenerateRecipes")
+    @Label("Recipe Generation")
+    public static final class GenerateRecipes extends ElderlyEvent { }
+
+    /**
+     * A handler committed to the registries.
+     */
+    @jdk.jfr.Name("net.danielgolan.elderly.Register")
+    @Label("Handler Registration")
+    public static final class Register extends ElderlyEvent { }
+}
@@ -0,0 +1,196 @@
+package net.danielgolan.elderion.library.profiling;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.danielgolan.elderion.library.ElderionIdentifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Times the construction and registration of handlers, both as {@link ElderlyEvent JDK Flight Recorder events}
+ * and as totals, which are reported once at the end of initialization.
+ * <p>
+ * The total is startup time, by the wall clock: a {@linkplain #batch() batch} is timed once as a whole, since its
+ * handlers are prepared in parallel. The time of each handler is summed over every thread it was built on, so the times
+ * of handlers can add up to more than the total.
+ * <p>
+ * The report lists the {@code elderly.profiler.top} (10 by default) slowest handlers. It is written to the log,
+ * and to the JSON file at {@code elderly.profiler.output}, if that system property is set.
+ */
+public final class StartupProfiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Elderly Library");
+    private static final int TOP = Integer.getInteger("elderly.profiler.top", 10);
+    private static final String OUTPUT = System.getProperty("elderly.profiler.output");
+
+    private static final Map<ElderionIdentifier, LongAdder> handlers = new ConcurrentHashMap<>();
+    private static final LongAdder objects = new LongAdder(), savedStates = new LongAdder();
+    //startup time, and the time of every handler, summed over threads
+    private static final LongAdder nanos = new LongAdder(), handlerNanos = new LongAdder();
+    //sections in open batches are part of their batch's startup time
+    private static final AtomicInteger openBatches = new AtomicInteger();
+    private static final AtomicBoolean reported = new AtomicBoolean(false);
+    //how many sections are open on each thread, so nested sections aren't counted twice
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private StartupProfiler() { }
+
+    /**
+     * Starts timing a section of work on a handler.
+     * @param event a new event of the kind of this work
+     * @param identifier the identifier of the handler
+     * @param variation the block variation this work is done for, if any
+     * @return the started section, to close once the work is done
+     */
+    public static @NotNull Section start(@NotNull ElderlyEvent event, ElderionIdentifier identifier, @Nullable Object variation) {
+        return new Section(event, identifier, variation);
+    }
+
+    /**
+     * Starts timing a batch of handlers, whose sections may run in parallel, by the wall clock.
+     * @return the started batch, to close once all of its handlers are registered
+     */
+    public static @NotNull Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * @param count how many game objects were created
+     */
+    public static void created(int count) {
+        objects.add(count);
+    }
+
+    /**
+     * @param count how many block states were saved by a lite variation
+     */
+    public static void savedStates(int count) {
+        savedStates.add(count);
+    }
+
+    /**
+     * Reports the totals, if they weren't reported yet.
+     */
+    public static void report() {
+        if (!reported.compareAndSet(false, true) || handlers.isEmpty()) return;
+
+        List<Map.Entry<ElderionIdentifier, Long>> slowest = handlers.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<ElderionIdentifier, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP).toList();
+
+        LOGGER.info("Built and registered {} handlers ({} objects) in {} ms", handlers.size(), objects.sum(), millis(nanos.sum()));
+        LOGGER.info("Slowest handlers, summed over threads ({} ms for all of them):", millis(handlerNanos.sum()));
+        for (Map.Entry<ElderionIdentifier, Long> entry : slowest)
+            LOGGER.info("  {}: {} ms", entry.getKey(), millis(entry.getValue()));
+        if (savedStates.sum() > 0) LOGGER.info("Lite variations saved {} block states", savedStates.sum());
+
+        if (OUTPUT != null) write(Path.of(OUTPUT), slowest);
+    }
+
+    private static void write(Path path, @NotNull List<Map.Entry<ElderionIdentifier, Long>> slowest) {
+        JsonObject report = new JsonObject();
+        report.addProperty("handlers", handlers.size());
+        report.addProperty("objects", objects.sum());
+        report.addProperty("totalMillis", millis(nanos.sum()));
+        report.addProperty("summedHandlerMillis", millis(handlerNanos.sum()));
+        report.addProperty("savedStates", savedStates.sum());
+
+        JsonArray array = new JsonArray();
+        for (Map.Entry<ElderionIdentifier, Long> entry : slowest) {
+            JsonObject handler = new JsonObject();
+            handler.addProperty("identifier", entry.getKey().toString());
+            handler.addProperty("summedMillis", millis(entry.getValue()));
+            array.add(handler);
+        }
+        report.add("slowest", array);
+
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+        } catch (IOException e) {
+            LOGGER.error("Couldn't write the startup report to {}", path, e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000D;
+    }
+
+    /**
+     * Times {@code work} as a section.
+     * @see #start(ElderlyEvent, ElderionIdentifier, Object)
+     */
+    public static <T> T time(@NotNull ElderlyEvent event, ElderionIdentifier identifier, @Nullable Object variation, @NotNull Supplier<T> work) {
+        try (Section ignored = start(event, identifier, variation)) {
+            return work.get();
+        }
+    }
+
+    /**
+     * A timed section of work on a handler.
+     */
+    public static final class Section implements AutoCloseable {
+        private final ElderlyEvent event;
+        private final ElderionIdentifier identifier;
+        private final boolean nested = depth.get()[0]++ > 0;
+        private final long start = System.nanoTime();
+
+        private Section(@NotNull ElderlyEvent event, ElderionIdentifier identifier, @Nullable Object variation) {
+            this.event = event;
+            this.identifier = identifier;
+
+            if (event.isEnabled()) {
+                event.identifier = String.valueOf(identifier);
+                event.variation = variation == null ? null : variation.toString();
+            }
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            event.commit();
+            depth.get()[0]--;
+
+            if (nested) return;
+
+            long time = System.nanoTime() - start;
+            handlerNanos.add(time);
+            if (openBatches.get() == 0) nanos.add(time);
+            if (identifier != null) handlers.computeIfAbsent(identifier, i -> new LongAdder()).add(time);
+        }
+    }
+
+    /**
+     * A batch of handlers, timed once as a whole.
+     */
+    public static final class Batch implements AutoCloseable {
+        //a section around the batch times it already
+        private final boolean counted = depth.get()[0] == 0;
+        private final boolean outermost = openBatches.getAndIncrement() == 0;
+        private final long start = System.nanoTime();
+
+        private Batch() { }
+
+        @Override
+        public void close() {
+            openBatches.decrementAndGet();
+            if (counted && outermost) nanos.add(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package net.danielgolan.elderion.library;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+
+/**
+ * Bootstraps the game without a client, server or mod loader, so the tests can build blocks and fluids.
+ * No mixin is applied: tests must not reach code which casts to Fabric's accessors or duck interfaces.
+ */
+public final class Headless {
+    public static final Author AUTHOR = new TestAuthor("test", "elderly_lib");
+
+    private static boolean bootstrapped = false;
+
+    private Headless() { }
+
+    public static synchronized void bootstrap() {
+        if (bootstrapped) return;
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        bootstrapped = true;
+    }
+
+    public static ElderionIdentifier identifier(String path) {
+        return new ElderionIdentifier(AUTHOR, path);
+    }
+
+    private record TestAuthor(String name, String modID) implements Author { }
+}
@@ -0,0 +1,48 @@
+package net.danielgolan.elderion.library.blocks;
+
+import net.danielgolan.elderion.library.Headless;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Material;
+import net.minecraft.fluid.FlowableFluid;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A {@link LiteFenceBlock} has no {@code waterlogged} property, so water must never try to fill it.
+ */
+class LiteFenceBlockTest {
+    private static LiteFenceBlock fence;
+
+    @BeforeAll
+    static void setup() {
+        Headless.bootstrap();
+        fence = new LiteFenceBlock(AbstractBlock.Settings.of(Material.WOOD));
+    }
+
+    @Test
+    void waterFlowsAround() throws ReflectiveOperationException {
+        //the check water runs on every block it spreads toward
+        Method canFill = FlowableFluid.class.getDeclaredMethod("canFill", BlockView.class, BlockPos.class, BlockState.class, Fluid.class);
+        canFill.setAccessible(true);
+
+        assertEquals(false, canFill.invoke(Fluids.WATER, null, BlockPos.ORIGIN, fence.getDefaultState(), Fluids.WATER));
+    }
+
+    @Test
+    void bucketsDontFill() {
+        BlockState state = fence.getDefaultState();
+
+        assertFalse(fence.canFillWithFluid(null, BlockPos.ORIGIN, state, Fluids.WATER));
+        assertFalse(fence.tryFillWithFluid(null, BlockPos.ORIGIN, state, Fluids.WATER.getStill(false)));
+        assertTrue(fence.tryDrainFluid(null, BlockPos.ORIGIN, state).isEmpty());
+    }
+}
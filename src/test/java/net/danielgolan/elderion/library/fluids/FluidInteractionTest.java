@@ -0,0 +1,80 @@
+package net.danielgolan.elderion.library.fluids;
+
+import net.danielgolan.elderion.library.Headless;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.Material;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.WorldAccess;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A library fluid flowing into a fluid it reacts with places the result picked by the block it flows from.
+ */
+class FluidInteractionTest {
+    private static final BlockPos FROM = new BlockPos(0, 64, 0), TO = FROM.down();
+
+    private static FluidHandler.Delegator fluid;
+
+    @BeforeAll
+    static void setup() {
+        Headless.bootstrap();
+
+        //its own block settings, since copying the settings of water needs Fabric's mixins
+        FluidHandler handler = FluidHandler.builder()
+                .interaction(Fluids.WATER, FluidInteraction.reaction(Blocks.OBSIDIAN.getDefaultState(),
+                        Blocks.COBBLESTONE.getDefaultState(), null))
+                .blockSettings(AbstractBlock.Settings.of(Material.LAVA).noCollision().strength(100).dropsNothing())
+                .build(Headless.identifier("test_lava"));
+        fluid = (FluidHandler.Delegator) handler.getStill();
+    }
+
+    @Test
+    void sourceResult() {
+        assertEquals(Blocks.OBSIDIAN.getDefaultState(), flowFrom(fluid.getStill(false)));
+    }
+
+    @Test
+    void flowingResult() {
+        assertEquals(Blocks.COBBLESTONE.getDefaultState(), flowFrom(fluid.getFlowing(7, false)));
+    }
+
+    /**
+     * Flows down from a block of this fluid into water.
+     * @return the block placed in the water
+     */
+    private static BlockState flowFrom(FluidState from) {
+        Map<BlockPos, FluidState> fluids = new HashMap<>(Map.of(FROM, from, TO, Fluids.WATER.getDefaultState()));
+        Map<BlockPos, BlockState> placed = new HashMap<>();
+
+        fluid.flowInto(world(fluids, placed), TO, Blocks.WATER.getDefaultState(), Direction.DOWN, fluid.getFlowing(8, true));
+        return placed.get(TO);
+    }
+
+    /**
+     * @return a world which only knows these fluids, and records the blocks placed in it
+     */
+    private static WorldAccess world(@NotNull Map<BlockPos, FluidState> fluids, @NotNull Map<BlockPos, BlockState> placed) {
+        return (WorldAccess) Proxy.newProxyInstance(WorldAccess.class.getClassLoader(), new Class<?>[]{WorldAccess.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getFluidState" -> fluids.getOrDefault((BlockPos) args[0], Fluids.EMPTY.getDefaultState());
+                    case "setBlockState" -> {
+                        placed.put((BlockPos) args[0], (BlockState) args[1]);
+                        yield true;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,92 @@
+package net.danielgolan.elderion.library.fluids;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.util.math.ChunkPos;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link PackedFluidTicks} must read back exactly the ticks it packed.
+ */
+class PackedFluidTicksTest {
+    private static final ChunkPos CHUNK = new ChunkPos(-3, 5);
+    private static final int X = CHUNK.getStartX(), Z = CHUNK.getStartZ();
+
+    @Test
+    void roundTrip() {
+        NbtCompound chunk = chunk(
+                //two fluids at the same position, below zero, one of them overdue
+                tick("test:a", X, -60, Z, 5, 0),
+                tick("test:b", X, -60, Z, -7, -1),
+                tick("test:a", X + 15, -1, Z + 15, -1, 2),
+                tick("test:b", X + 8, -64, Z + 5, 0, -3),
+                tick("test:a", X + 8, 319, Z + 5, 100000, 3),
+                tick("minecraft:water", X + 3, 10, Z + 2, 3, 0));
+        List<String> expected = ticks(chunk);
+
+        PackedFluidTicks.pack(chunk, fluid -> fluid.startsWith("test:"));
+
+        assertEquals(List.of(describe(tick("minecraft:water", X + 3, 10, Z + 2, 3, 0))), ticks(chunk));
+        NbtList sections = chunk.getList(PackedFluidTicks.KEY, NbtElement.COMPOUND_TYPE);
+        assertEquals(3, sections.size());
+
+        NbtCompound lowest = sections.getCompound(0);
+        assertEquals(-4, lowest.getInt("Y"));
+        assertEquals(2, lowest.getList("Palette", NbtElement.STRING_TYPE).size());
+
+        PackedFluidTicks.unpack(chunk, CHUNK);
+
+        assertFalse(chunk.contains(PackedFluidTicks.KEY));
+        List<String> actual = ticks(chunk);
+        assertEquals(expected.stream().sorted().toList(), actual.stream().sorted().toList());
+    }
+
+    @Test
+    void nothingToPack() {
+        NbtCompound chunk = chunk(tick("minecraft:water", X, 0, Z, 1, 0));
+
+        PackedFluidTicks.pack(chunk, fluid -> fluid.startsWith("test:"));
+
+        assertFalse(chunk.contains(PackedFluidTicks.KEY));
+        assertEquals(1, ticks(chunk).size());
+    }
+
+    private static @NotNull NbtCompound chunk(NbtCompound @NotNull ... ticks) {
+        NbtList list = new NbtList();
+        for (NbtCompound tick : ticks) list.add(tick);
+
+        NbtCompound chunk = new NbtCompound();
+        chunk.put(PackedFluidTicks.VANILLA_KEY, list);
+        return chunk;
+    }
+
+    private static @NotNull NbtCompound tick(String fluid, int x, int y, int z, int delay, int priority) {
+        NbtCompound tick = new NbtCompound();
+        tick.putString("i", fluid);
+        tick.putInt("x", x);
+        tick.putInt("y", y);
+        tick.putInt("z", z);
+        tick.putInt("t", delay);
+        tick.putInt("p", priority);
+        return tick;
+    }
+
+    private static @NotNull List<String> ticks(@NotNull NbtCompound chunk) {
+        List<String> ticks = new ArrayList<>();
+        for (NbtElement tick : chunk.getList(PackedFluidTicks.VANILLA_KEY, NbtElement.COMPOUND_TYPE))
+            ticks.add(describe((NbtCompound) tick));
+        return ticks;
+    }
+
+    private static @NotNull String describe(@NotNull NbtCompound tick) {
+        return tick.getString("i") + " " + tick.getInt("x") + " " + tick.getInt("y") + " " + tick.getInt("z") +
+                " " + tick.getInt("t") + " " + tick.getInt("p");
+    }
+}